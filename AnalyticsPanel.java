@@ -0,0 +1,77 @@
+import GymTrackerProject.src.core.HistoryAnalytics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * "Analytics" tab: personal records, weekly volume for a chosen exercise
+ * and weekly cardio distance, read from a {@link HistoryAnalytics}.
+ */
+class AnalyticsPanel extends JPanel {
+    private final JComboBox<String> exerciseBox = new JComboBox<>();
+    private final JTextArea area = new JTextArea(20, 30);
+    private HistoryAnalytics analytics;
+
+    AnalyticsPanel() {
+        super(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createTitledBorder("History Analytics"));
+        area.setEditable(false);
+        exerciseBox.addActionListener(e -> render());
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(new JLabel("Weekly volume for:"));
+        top.add(exerciseBox);
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(area), BorderLayout.CENTER);
+        area.setText("Computing analytics...");
+    }
+
+    void showAnalytics(HistoryAnalytics analytics) {
+        this.analytics = analytics;
+        Object selected = exerciseBox.getSelectedItem();
+        DefaultComboBoxModel<String> names = new DefaultComboBoxModel<>();
+        for (String name : analytics.getExerciseNames()) {
+            names.addElement(name);
+        }
+        if (selected != null && names.getIndexOf(selected) >= 0) {
+            names.setSelectedItem(selected);
+        }
+        exerciseBox.setModel(names);
+        render();
+    }
+
+    void showError(String message) {
+        area.setText("Could not compute analytics: " + message);
+    }
+
+    private void render() {
+        if (analytics == null) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("Workouts analysed: ").append(analytics.getWorkoutCount()).append("\n\n");
+
+        text.append("--- Personal Records ---\n");
+        for (HistoryAnalytics.PersonalRecord record : analytics.getPersonalRecords()) {
+            text.append(String.format("%s: %.1f kg x %d (est. 1RM %.1f) on %s%n", record.getExercise(),
+                    record.getWeight(), record.getReps(), record.getEstimatedOneRepMax(), record.getDate()));
+        }
+
+        String exercise = (String) exerciseBox.getSelectedItem();
+        if (exercise != null) {
+            text.append("\n--- Weekly Volume: ").append(exercise).append(" ---\n");
+            for (Map.Entry<LocalDate, Double> week : analytics.getWeeklyVolume(exercise).entrySet()) {
+                text.append(String.format("Week of %s: %.1f kg%n", week.getKey(), week.getValue()));
+            }
+        }
+
+        text.append("\n--- Weekly Cardio Distance ---\n");
+        for (Map.Entry<LocalDate, Double> week : analytics.getWeeklyCardioDistance().entrySet()) {
+            text.append(String.format("Week of %s: %.2f km%n", week.getKey(), week.getValue()));
+        }
+        area.setText(text.toString());
+        area.setCaretPosition(0);
+    }
+}
@@ -0,0 +1,106 @@
+package controller;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs controller work (JDBC calls) off the Swing event dispatch thread.
+ * Uses virtual threads when the JVM has them, otherwise a small daemon pool.
+ */
+public final class AsyncExecutor {
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static final ConcurrentHashMap<Object, CompletableFuture<?>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private AsyncExecutor() {}
+
+    /**
+     * Runs the task in the background. While a task with an equal key is
+     * still running, its future is returned instead of starting another one,
+     * so a double-click does not fire the same query twice. Cancelling the
+     * returned future interrupts the worker.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<T> submit(Object key, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) IN_FLIGHT.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        future.whenComplete((result, error) -> IN_FLIGHT.remove(key, future));
+        return start(future, task);
+    }
+
+    /**
+     * Runs the task in the background without joining or being joined by
+     * any other call, for work whose result belongs to one caller only.
+     */
+    public static <T> CompletableFuture<T> submit(Callable<T> task) {
+        return start(new CompletableFuture<>(), task);
+    }
+
+    private static <T> CompletableFuture<T> start(CompletableFuture<T> future, Callable<T> task) {
+        FutureTask<T> work = new FutureTask<T>(task) {
+            @Override
+            protected void done() {
+                try {
+                    future.complete(get());
+                } catch (CancellationException e) {
+                    future.cancel(false);
+                } catch (InterruptedException e) {
+                    future.completeExceptionally(e);
+                } catch (Exception e) {
+                    future.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        };
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                work.cancel(true);
+            }
+        });
+        EXECUTOR.execute(work);
+        return future;
+    }
+
+    /**
+     * Delivers the outcome on the event dispatch thread. Nothing is
+     * delivered if the future was cancelled, e.g. because its frame closed.
+     */
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        }));
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "controller-worker-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
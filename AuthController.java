@@ -1,38 +1,154 @@
 package controller;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import model.DataAccessContext;
 import model.DatabaseManager;
+import model.LoginResult;
+import model.Metrics;
+import model.OperationMetrics;
+import model.RegistrationResult;
 import model.User;
 import view.LoginFrame;
 import view.RegisterFrame;
 
 public class AuthController {
-    private DatabaseManager dbManager;
+    private static final OperationMetrics LOGIN = Metrics.operation("auth.login");
+    private static final OperationMetrics REGISTER = Metrics.operation("auth.register");
+    private static final OperationMetrics USER_EXISTS = Metrics.operation("auth.userExists");
+
+    // Resolved on first use, so the login window can open before the database is connected
+    private volatile DatabaseManager dbManager;
+    private final LoginThrottle throttle = new LoginThrottle();
+    // Built the first time they are shown, then hidden and shown again
+    private LoginFrame loginFrame;
+    private RegisterFrame registerFrame;
     
     public AuthController() {
-        this.dbManager = new DatabaseManager();
+    }
+
+    public AuthController(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
     }
     
     public User authenticateUser(String username, String password) {
-        return dbManager.loginUser(username, password);
+        return login(username, password).getUser();
+    }
+
+    /**
+     * Logs in through the throttle: attempts over the per-username or
+     * global rate, and usernames the database recently reported unknown,
+     * are answered without a query.
+     */
+    public LoginResult login(String username, String password) {
+        long start = LOGIN.begin();
+        try {
+            long retryAfter = throttle.acquire(username);
+            if (retryAfter > 0) {
+                return LoginResult.throttled(retryAfter);
+            }
+            if (throttle.isKnownUnknown(username)) {
+                // Skips the query but not the hash work, so a cached unknown takes as long as a real miss
+                getDatabaseManager().getHasher().verifyDummy(password);
+                return LoginResult.failed(LoginResult.Status.UNKNOWN_USER);
+            }
+            LoginResult result = getDatabaseManager().authenticate(username, password);
+            if (result.getStatus() == LoginResult.Status.UNKNOWN_USER) {
+                throttle.recordUnknown(username);
+            } else if (result.isSuccess()) {
+                throttle.reset(username);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            LOGIN.error(e);
+            throw e;
+        } finally {
+            LOGIN.end(start);
+        }
     }
     
     public boolean registerUser(User user) {
-        return dbManager.registerUser(user);
+        return register(user) == RegistrationResult.SUCCESS;
     }
     
+    public RegistrationResult register(User user) {
+        long start = REGISTER.begin();
+        try {
+            RegistrationResult result = getDatabaseManager().register(user);
+            if (result == RegistrationResult.SUCCESS) {
+                // Drop a cached "unknown" for the new name
+                throttle.reset(user.getUsername());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            REGISTER.error(e);
+            throw e;
+        } finally {
+            REGISTER.end(start);
+        }
+    }
+
+    public ThrottleStats getThrottleStats() {
+        return throttle.stats();
+    }
+
     public boolean userExists(String username, String email) {
-        return dbManager.userExists(username, email);
+        long start = USER_EXISTS.begin();
+        try {
+            return getDatabaseManager().userExists(username, email);
+        } finally {
+            USER_EXISTS.end(start);
+        }
+    }
+
+    public CompletableFuture<User> authenticateUserAsync(String username, String password) {
+        return loginAsync(username, password).thenApply(LoginResult::getUser);
+    }
+
+    /**
+     * Every attempt runs on its own. Logins are never de-duplicated: a
+     * joined attempt would hand one caller's result to another without
+     * checking that caller's password.
+     */
+    public CompletableFuture<LoginResult> loginAsync(String username, String password) {
+        return AsyncExecutor.submit(() -> login(username, password));
+    }
+
+    public CompletableFuture<RegistrationResult> registerAsync(User user) {
+        return AsyncExecutor.submit(Arrays.asList("register", user.getUsername(), user.getEmail()),
+                () -> register(user));
+    }
+
+    public CompletableFuture<Boolean> userExistsAsync(String username, String email) {
+        return AsyncExecutor.submit(Arrays.asList("userExists", username, email),
+                () -> userExists(username, email));
     }
     
     public void showLoginView() {
-        new LoginFrame(this).setVisible(true);
+        if (loginFrame == null) {
+            loginFrame = new LoginFrame(this);
+        }
+        loginFrame.setVisible(true);
     }
     
     public void showRegisterView() {
-        new RegisterFrame(this).setVisible(true);
+        if (registerFrame == null) {
+            registerFrame = new RegisterFrame(this);
+        }
+        registerFrame.setVisible(true);
     }
     
+    /**
+     * The manager this controller uses, taken from {@link DataAccessContext}
+     * on first use unless one was passed in. That first call waits for the
+     * context to start, so it belongs on a background thread.
+     */
     public DatabaseManager getDatabaseManager() {
-        return dbManager;
+        DatabaseManager manager = dbManager;
+        if (manager == null) {
+            manager = DataAccessContext.get().getDatabaseManager();
+            dbManager = manager;
+        }
+        return manager;
     }
 }
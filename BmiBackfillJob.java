@@ -0,0 +1,356 @@
+package model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Headless job that recomputes the stored BMI of every user from height
+ * and weight, for rows imported with a stale or missing value.
+ * <p>
+ * One reader streams {@code users} in id order through a forward-only
+ * cursor and hands fixed-size chunks to worker threads over a bounded
+ * queue. Each worker recomputes its chunk and writes the rows that
+ * changed as one JDBC batch in one transaction. Each update only applies
+ * while the row still has the height and weight that were read, so a
+ * dashboard save made since the read is left alone and counted as
+ * changed since read. After each chunk commits, the highest id below
+ * which every chunk has committed is written to a checkpoint file, and a
+ * rerun resumes after that id.
+ * <p>
+ * The job opens its own pool on the central database with
+ * {@code useCursorFetch=true}, so Connector/J honours the fetch size
+ * instead of buffering the whole result. {@code --url} replaces the URL;
+ * keep that option on it for MySQL. The pool holds one connection per
+ * worker plus one for the reader.
+ * <p>
+ * The job runs in its own process, so kiosks that are running keep
+ * serving the BMI from their cached user rows until those expire, up to
+ * a minute later, and a details update still waiting in a kiosk's
+ * write-behind queue lands after the job has read the row. Neither is
+ * lost: that update writes its own BMI, and the job's height and weight
+ * check leaves it alone.
+ * <p>
+ * Usage: {@code java model.BmiBackfillJob [--chunk N] [--workers N]
+ * [--checkpoint FILE] [--restart] [--url JDBC_URL]}
+ */
+public class BmiBackfillJob {
+    private static final String SELECT_QUERY = "SELECT id, height, weight, bmi FROM users WHERE id > ? ORDER BY id";
+    private static final String COUNT_QUERY = "SELECT COUNT(*) FROM users WHERE id > ?";
+    private static final String UPDATE_QUERY = "UPDATE users SET bmi = ? WHERE id = ? AND height = ? AND weight = ?";
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000;
+    // Differences below this are rounding noise, not a stale value
+    private static final double BMI_TOLERANCE = 1e-6;
+
+    private final ConnectionPool pool;
+    private final int chunkSize;
+    private final int workers;
+    private final Path checkpointFile;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong changedSinceRead = new AtomicLong();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    // Checkpoint state: chunks commit out of order, so track which sequence numbers are done
+    private final Object checkpointLock = new Object();
+    private final List<Chunk> committed = new ArrayList<>();
+    private long nextToCheckpoint;
+    private int checkpointId;
+
+    private long startNanos;
+    private long lastProgress;
+    private long total;
+
+    public BmiBackfillJob(ConnectionPool pool, int chunkSize, int workers, Path checkpointFile) {
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        this.checkpointFile = checkpointFile;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int chunkSize = 500;
+        int workers = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        Path checkpoint = Paths.get("bmi_backfill.checkpoint");
+        String url = DatabaseManager.URL + "&useCursorFetch=true";
+        boolean restart = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--chunk": chunkSize = Integer.parseInt(args[++i]); break;
+                case "--workers": workers = Integer.parseInt(args[++i]); break;
+                case "--checkpoint": checkpoint = Paths.get(args[++i]); break;
+                case "--restart": restart = true; break;
+                case "--url": url = args[++i]; break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    System.out.println("Usage: BmiBackfillJob [--chunk N] [--workers N] [--checkpoint FILE] [--restart] [--url JDBC_URL]");
+                    System.exit(2);
+            }
+        }
+        if (restart) {
+            Files.deleteIfExists(checkpoint);
+        }
+        PoolConfig config = new PoolConfig(url, DatabaseManager.USERNAME, DatabaseManager.PASSWORD);
+        // The reader holds a connection for the whole scan, so each worker needs one beside it
+        config.setMaxSize(workers + 1);
+        ConnectionPool pool = new ConnectionPool(config);
+        boolean ok;
+        try {
+            ok = new BmiBackfillJob(pool, chunkSize, workers, checkpoint).run();
+        } finally {
+            pool.close();
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    /**
+     * Runs the backfill from the last checkpoint. Returns false if a chunk
+     * failed; everything before the checkpoint is committed, so running
+     * again picks up where this run stopped.
+     */
+    public boolean run() throws IOException, InterruptedException {
+        checkpointId = readCheckpoint();
+        startNanos = System.nanoTime();
+        lastProgress = System.currentTimeMillis();
+
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(workers * 2);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(() -> work(queue), "bmi-backfill-" + i);
+            worker.start();
+            threads.add(worker);
+        }
+
+        try {
+            total = countRemaining(checkpointId);
+            System.out.println("BMI backfill: " + total + " users after id " + checkpointId
+                    + ", chunks of " + chunkSize + ", " + workers + " workers");
+            read(queue);
+        } catch (SQLException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                queue.put(Chunk.END);
+            }
+            for (Thread worker : threads) {
+                worker.join();
+            }
+        }
+
+        report(true);
+        Exception error = failure.get();
+        if (error != null) {
+            System.out.println("BMI backfill stopped at id " + checkpointId + "; rerun to resume");
+            error.printStackTrace();
+            return false;
+        }
+        Files.deleteIfExists(checkpointFile);
+        return true;
+    }
+
+    public long getScanned() { return scanned.get(); }
+    public long getUpdated() { return updated.get(); }
+    public long getChangedSinceRead() { return changedSinceRead.get(); }
+
+    private void read(BlockingQueue<Chunk> queue) throws SQLException, InterruptedException {
+        try (Connection connection = pool.getConnection()) {
+            // Some drivers only stream with auto-commit off
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(SELECT_QUERY,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(chunkSize);
+                stmt.setInt(1, checkpointId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    long sequence = 0;
+                    Chunk chunk = new Chunk(sequence++, chunkSize);
+                    while (failure.get() == null && rs.next()) {
+                        chunk.add(rs.getInt("id"), rs.getDouble("height"), rs.getDouble("weight"), rs.getDouble("bmi"));
+                        if (chunk.size == chunkSize) {
+                            queue.put(chunk);
+                            chunk = new Chunk(sequence++, chunkSize);
+                        }
+                    }
+                    if (chunk.size > 0 && failure.get() == null) {
+                        queue.put(chunk);
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void work(BlockingQueue<Chunk> queue) {
+        try {
+            Chunk chunk;
+            while ((chunk = queue.take()) != Chunk.END) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    write(chunk);
+                    chunkCommitted(chunk);
+                } catch (SQLException | IOException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Chunk chunk) throws SQLException {
+        int changed = 0;
+        int stale = 0;
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(UPDATE_QUERY)) {
+                for (int i = 0; i < chunk.size; i++) {
+                    double height = chunk.heights[i];
+                    double weight = chunk.weights[i];
+                    if (height <= 0 || weight <= 0) {
+                        continue;
+                    }
+                    double heightInMeters = height / 100;
+                    double bmi = weight / (heightInMeters * heightInMeters);
+                    if (Math.abs(bmi - chunk.bmis[i]) < BMI_TOLERANCE) {
+                        continue;
+                    }
+                    stmt.setDouble(1, bmi);
+                    stmt.setInt(2, chunk.ids[i]);
+                    stmt.setDouble(3, height);
+                    stmt.setDouble(4, weight);
+                    stmt.addBatch();
+                    changed++;
+                }
+                if (changed > 0) {
+                    // A count of 0 means the row's height or weight changed after the read
+                    for (int count : stmt.executeBatch()) {
+                        if (count == 0) {
+                            stale++;
+                        }
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        scanned.addAndGet(chunk.size);
+        updated.addAndGet(changed - stale);
+        skipped.addAndGet(chunk.size - changed);
+        changedSinceRead.addAndGet(stale);
+    }
+
+    // Advances the checkpoint over the run of chunks committed in sequence order
+    private void chunkCommitted(Chunk chunk) throws IOException {
+        synchronized (checkpointLock) {
+            committed.add(chunk);
+            boolean advanced = false;
+            for (boolean found = true; found; ) {
+                found = false;
+                for (int i = 0; i < committed.size(); i++) {
+                    if (committed.get(i).sequence == nextToCheckpoint) {
+                        checkpointId = committed.remove(i).lastId();
+                        nextToCheckpoint++;
+                        advanced = found = true;
+                        break;
+                    }
+                }
+            }
+            if (advanced) {
+                writeCheckpoint(checkpointId);
+            }
+            report(false);
+        }
+    }
+
+    private int readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        String content = new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim();
+        System.out.println("Resuming BMI backfill after user id " + content);
+        return Integer.parseInt(content);
+    }
+
+    private void writeCheckpoint(int lastId) throws IOException {
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.write(temp, Integer.toString(lastId).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long countRemaining(int afterId) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(COUNT_QUERY)) {
+            stmt.setInt(1, afterId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void report(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastProgress < PROGRESS_INTERVAL_MILLIS) {
+            return;
+        }
+        lastProgress = now;
+        double seconds = Math.max(1e-3, (System.nanoTime() - startNanos) / 1e9);
+        long done = scanned.get();
+        double rate = done / seconds;
+        String eta = rate > 0 && total > done ? String.format(", ETA %.0fs", (total - done) / rate) : "";
+        System.out.println(String.format("BMI backfill: %d/%d scanned, %d updated, %d unchanged, %d changed since read, %.0f rows/s%s (checkpoint id %d)",
+                done, total, updated.get(), skipped.get(), changedSinceRead.get(), rate, eta, checkpointId));
+    }
+
+    private static class Chunk {
+        static final Chunk END = new Chunk(-1, 0);
+
+        final long sequence;
+        final int[] ids;
+        final double[] heights;
+        final double[] weights;
+        final double[] bmis;
+        int size;
+
+        Chunk(long sequence, int capacity) {
+            this.sequence = sequence;
+            this.ids = new int[capacity];
+            this.heights = new double[capacity];
+            this.weights = new double[capacity];
+            this.bmis = new double[capacity];
+        }
+
+        void add(int id, double height, double weight, double bmi) {
+            ids[size] = id;
+            heights[size] = height;
+            weights[size] = weight;
+            bmis[size] = bmi;
+            size++;
+        }
+
+        int lastId() {
+            return ids[size - 1];
+        }
+    }
+}
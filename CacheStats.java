@@ -0,0 +1,50 @@
+package model;
+
+/**
+ * Point-in-time counters for a {@link LoadingCache}.
+ */
+public class CacheStats {
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long loadFailures;
+    private final long totalLoadNanos;
+    private final long evictions;
+
+    public CacheStats(int size, int maxSize, long hits, long misses, long loads, long loadFailures,
+                      long totalLoadNanos, long evictions) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadFailures = loadFailures;
+        this.totalLoadNanos = totalLoadNanos;
+        this.evictions = evictions;
+    }
+
+    public int getSize() { return size; }
+    public int getMaxSize() { return maxSize; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getLoads() { return loads; }
+    public long getLoadFailures() { return loadFailures; }
+    public long getEvictions() { return evictions; }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public double getAverageLoadMillis() {
+        return loads == 0 ? 0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d/%d hits=%d misses=%d hit-rate=%.1f%% loads=%d failures=%d avg-load=%.2fms evictions=%d",
+                size, maxSize, hits, misses, getHitRate() * 100, loads, loadFailures, getAverageLoadMillis(), evictions);
+    }
+}
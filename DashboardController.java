@@ -1,12 +1,21 @@
 package controller;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 import model.DatabaseManager;
+import model.Metrics;
+import model.OperationMetrics;
 import model.User;
 import view.DashboardFrame;
 
 public class DashboardController {
+    private static final OperationMetrics UPDATE_DETAILS = Metrics.operation("dashboard.updateUserDetails");
+    // From submission to completion, so time spent queued on the executor is included
+    private static final OperationMetrics UPDATE_DETAILS_ASYNC = Metrics.operation("dashboard.updateUserDetailsAsync");
+
     private DatabaseManager dbManager;
     private User user;
+    private DashboardFrame dashboardFrame;
     
     public DashboardController(User user, DatabaseManager dbManager) {
         this.user = user;
@@ -21,10 +30,38 @@ public class DashboardController {
         user.setHeight(height);
         user.setWeight(weight);
         user.setBmi(bmi);
-        return dbManager.updateUserDetails(user.getId(), height, weight, bmi);
+        long start = UPDATE_DETAILS.begin();
+        try {
+            return dbManager.updateUserDetails(user.getId(), height, weight, bmi);
+        } catch (RuntimeException e) {
+            UPDATE_DETAILS.error(e);
+            throw e;
+        } finally {
+            UPDATE_DETAILS.end(start);
+        }
+    }
+
+    // Call from the event dispatch thread: the user is updated here, only the database write runs in the background
+    public CompletableFuture<Boolean> updateUserDetailsAsync(double height, double weight, double bmi) {
+        user.setHeight(height);
+        user.setWeight(weight);
+        user.setBmi(bmi);
+        int userId = user.getId();
+        long start = UPDATE_DETAILS_ASYNC.begin();
+        return AsyncExecutor.submit(Arrays.asList("updateUserDetails", userId, height, weight, bmi),
+                () -> dbManager.updateUserDetails(userId, height, weight, bmi))
+                .whenComplete((saved, error) -> {
+                    if (error != null) {
+                        UPDATE_DETAILS_ASYNC.error(error);
+                    }
+                    UPDATE_DETAILS_ASYNC.end(start);
+                });
     }
     
     public void showDashboardView() {
-        new DashboardFrame(this).setVisible(true);
+        if (dashboardFrame == null) {
+            dashboardFrame = new DashboardFrame(this);
+        }
+        dashboardFrame.setVisible(true);
     }
 }
@@ -5,7 +5,10 @@ import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import controller.AsyncExecutor;
 import controller.DashboardController;
+import controller.TaskScope;
+import model.RecommendationEngine;
 
 public class DashboardFrame extends JFrame {
     private DashboardController dashboardController;
@@ -13,6 +16,8 @@ public class DashboardFrame extends JFrame {
     private JTextField weightField;
     private JLabel bmiLabel;
     private JTextArea workoutPlanArea;
+    private JButton calculateButton;
+    private final TaskScope tasks = new TaskScope();
 
     public DashboardFrame(DashboardController dashboardController) {
         this.dashboardController = dashboardController;
@@ -75,7 +80,7 @@ public class DashboardFrame extends JFrame {
         gbc2.gridx = 0; gbc2.gridy = 2;
         detailsPanel.add(bmiLabel, gbc2);
 
-        JButton calculateButton = new JButton("Calculate BMI & Get Plan");
+        calculateButton = new JButton("Calculate BMI & Get Plan");
         calculateButton.setPreferredSize(new Dimension(200, 30));
         gbc2.gridx = 0; gbc2.gridy = 3; gbc2.gridwidth = 2;
         detailsPanel.add(calculateButton, gbc2);
@@ -129,14 +134,24 @@ public class DashboardFrame extends JFrame {
 
             bmiLabel.setText("BMI: " + String.format("%.2f", bmi));
 
-            if (dashboardController.updateUserDetails(height, weight, bmi)) {
-                displayWorkoutPlan(bmi);
-                JOptionPane.showMessageDialog(this, "BMI calculated and saved successfully!", 
-                                            "Success", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to save data.", 
-                                            "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            calculateButton.setEnabled(false);
+            AsyncExecutor.onEdt(tasks.track(dashboardController.updateUserDetailsAsync(height, weight, bmi)),
+                saved -> {
+                    calculateButton.setEnabled(true);
+                    if (saved) {
+                        displayWorkoutPlan(bmi);
+                        JOptionPane.showMessageDialog(this, "BMI calculated and saved successfully!", 
+                                                    "Success", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to save data.", 
+                                                    "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                error -> {
+                    calculateButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Failed to save data: " + error.getMessage(), 
+                                                "Error", JOptionPane.ERROR_MESSAGE);
+                });
 
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Please enter valid numeric values for height and weight.", 
@@ -144,52 +159,19 @@ public class DashboardFrame extends JFrame {
         }
     }
 
+    @Override
+    public void dispose() {
+        tasks.cancelAll();
+        super.dispose();
+    }
+
     private void displayWorkoutPlan(double bmi) {
-        StringBuilder plan = new StringBuilder();
-        plan.append("Based on your BMI of ").append(String.format("%.2f", bmi)).append(":\n\n");
-
-        if (bmi < 18.5) {
-            plan.append("Category: Underweight\n\n");
-            plan.append("Recommended Workout Plan:\n");
-            plan.append("• Focus on strength training 4-5 times per week\n");
-            plan.append("• Compound exercises: Squats, Deadlifts, Bench Press\n");
-            plan.append("• Progressive overload to build muscle mass\n");
-            plan.append("• 8-12 reps for muscle growth\n");
-            plan.append("• Adequate rest between workouts (48-72 hours)\n");
-            plan.append("• Include protein-rich foods in your diet\n");
-        } else if (bmi >= 18.5 && bmi < 25) {
-            plan.append("Category: Normal weight\n\n");
-            plan.append("Recommended Workout Plan:\n");
-            plan.append("• Balanced mix of cardio and strength training\n");
-            plan.append("• Strength training 3-4 times per week\n");
-            plan.append("• Cardio 2-3 times per week (30-45 minutes)\n");
-            plan.append("• Full body workouts or split routines\n");
-            plan.append("• 6-12 reps for muscle maintenance\n");
-            plan.append("• Include variety in exercises to prevent plateau\n");
-            plan.append("• Maintain consistent healthy diet\n");
-        } else if (bmi >= 25 && bmi < 30) {
-            plan.append("Category: Overweight\n\n");
-            plan.append("Recommended Workout Plan:\n");
-            plan.append("• Focus on cardio to burn calories (4-5 times per week)\n");
-            plan.append("• Include strength training 2-3 times per week\n");
-            plan.append("• Start with low-impact cardio: walking, swimming, cycling\n");
-            plan.append("• Gradually increase intensity and duration\n");
-            plan.append("• Bodyweight exercises: Push-ups, squats, planks\n");
-            plan.append("• 12-15 reps for fat loss and muscle toning\n");
-            plan.append("• Create a caloric deficit through diet and exercise\n");
-        } else {
-            plan.append("Category: Obese\n\n");
-            plan.append("Recommended Workout Plan:\n");
-            plan.append("• Start with low-impact cardio activities\n");
-            plan.append("• Walking program: Start with 15-20 minutes daily\n");
-            plan.append("• Gradually increase duration and intensity\n");
-            plan.append("• Light strength training 2 times per week\n");
-            plan.append("• Focus on mobility and flexibility exercises\n");
-            plan.append("• Consult with a healthcare provider before starting\n");
-            plan.append("• Set realistic goals for gradual weight loss\n");
-            plan.append("• Prioritize consistency over intensity initially\n");
+        try {
+            // The dashboard does not know the member's age, so the plan is by BMI only
+            workoutPlanArea.setText(RecommendationEngine.shared().recommend(bmi, RecommendationEngine.UNKNOWN_AGE));
+        } catch (IllegalStateException e) {
+            workoutPlanArea.setText("Workout plans are unavailable: " + e.getMessage());
+            e.printStackTrace();
         }
-
-        workoutPlanArea.setText(plan.toString());
     }
 }
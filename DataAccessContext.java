@@ -0,0 +1,168 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The application's single {@link DatabaseManager}, with an explicit
+ * lifecycle: {@link #start()} once at startup, or {@link #warmUpAsync()}
+ * to start, open and prime connections in the background before the first
+ * login, {@link #checkHealth()} at any time, and {@link #shutdown(long)}
+ * to drain and close. A JVM shutdown hook runs the shutdown if nothing
+ * else has.
+ * <p>
+ * Draining waits for database calls already running (the {@code db.*}
+ * in-flight gauges in {@link Metrics}) before flushing queued writes and
+ * closing the pool. Code that already holds the manager is not stopped
+ * from starting new calls; {@link #getDatabaseManager()} refuses once
+ * draining has begun.
+ */
+public final class DataAccessContext {
+    public enum State { NEW, RUNNING, DRAINING, CLOSED }
+
+    public static final long DEFAULT_DRAIN_MILLIS = 10_000;
+
+    private static DataAccessContext instance;
+
+    private volatile State state = State.NEW;
+    private DatabaseManager databaseManager;
+    private Thread shutdownHook;
+    private CompletableFuture<Integer> warmUp;
+
+    private DataAccessContext() {
+    }
+
+    public static synchronized DataAccessContext get() {
+        if (instance == null) {
+            instance = new DataAccessContext();
+        }
+        return instance;
+    }
+
+    /** Creates the shared manager and registers the shutdown hook. Does nothing if already started. */
+    public synchronized void start() {
+        if (state != State.NEW) {
+            return;
+        }
+        databaseManager = new DatabaseManager();
+        shutdownHook = new Thread(() -> shutdown(DEFAULT_DRAIN_MILLIS), "data-access-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        state = State.RUNNING;
+    }
+
+    /** The shared manager, starting the context on first use. */
+    public synchronized DatabaseManager getDatabaseManager() {
+        if (state == State.NEW) {
+            start();
+        }
+        if (state != State.RUNNING) {
+            throw new IllegalStateException("Data access is " + state.name().toLowerCase());
+        }
+        return databaseManager;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Starts the context if needed, then warms the pool and statement caches,
+     * all on a background thread; see {@link DatabaseManager#warmUp()}. The
+     * driver load and first connects therefore stay off the caller's thread.
+     * The future completes with the number of connections warmed. Calling
+     * again returns the same future.
+     */
+    public synchronized CompletableFuture<Integer> warmUpAsync() {
+        if (warmUp != null) {
+            return warmUp;
+        }
+        warmUp = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                int warmed = getDatabaseManager().warmUp();
+                System.out.println(String.format("Data access warmed up: %d connections in %.0fms",
+                        warmed, (System.nanoTime() - start) / 1e6));
+                warmUp.complete(warmed);
+            } catch (SQLException | RuntimeException e) {
+                System.out.println("Data access warm-up failed: " + e.getMessage());
+                warmUp.completeExceptionally(e);
+            }
+        }, "data-access-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+        return warmUp;
+    }
+
+    /** Borrows a connection and asks the database whether it is alive. */
+    public HealthCheck checkHealth() {
+        DatabaseManager manager;
+        synchronized (this) {
+            manager = databaseManager;
+        }
+        if (manager == null || state != State.RUNNING) {
+            return new HealthCheck(state, false, 0, false, 0, null, null);
+        }
+        SyncEngine sync = manager.getSyncEngine();
+        boolean offline = sync != null && !sync.isOnline();
+        long syncLag = sync == null ? 0 : sync.getSyncLagMillis();
+        long start = System.nanoTime();
+        try (Connection connection = manager.getPool().getConnection()) {
+            boolean valid = connection.isValid(2);
+            return new HealthCheck(state, valid, (System.nanoTime() - start) / 1e6, offline, syncLag,
+                    manager.getPoolMetrics(), valid ? null : "connection failed validation");
+        } catch (SQLException e) {
+            return new HealthCheck(state, false, (System.nanoTime() - start) / 1e6, offline, syncLag,
+                    manager.getPoolMetrics(), e.getMessage());
+        }
+    }
+
+    /**
+     * Stops handing out the manager, waits up to {@code drainMillis} for
+     * running database calls to finish, then closes the manager (flushing
+     * write-behind updates) and its pool.
+     */
+    public void shutdown(long drainMillis) {
+        DatabaseManager manager;
+        synchronized (this) {
+            if (state != State.RUNNING) {
+                return;
+            }
+            state = State.DRAINING;
+            manager = databaseManager;
+        }
+        long deadline = System.currentTimeMillis() + drainMillis;
+        long running;
+        while ((running = inFlight()) > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (running > 0) {
+            System.out.println("Closing data access with " + running + " database calls still running");
+        }
+        manager.closeConnection();
+        state = State.CLOSED;
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down
+            }
+        }
+    }
+
+    private static long inFlight() {
+        long running = 0;
+        for (OperationMetrics operation : Metrics.all()) {
+            if (operation.getName().startsWith("db.")) {
+                running += operation.getInFlight();
+            }
+        }
+        return running;
+    }
+}
@@ -1,102 +1,546 @@
 package model;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class DatabaseManager {
-    private static final String URL = "jdbc:mysql://localhost:3306/gymtracker?useSSL=false&serverTimezone=UTC";
-    private static final String USERNAME = "xavi";
-    private static final String PASSWORD = "asdfghjkl;'";
+    // Package-private so jobs in this package can open their own pool on the same database
+    static final String URL = "jdbc:mysql://localhost:3306/gymtracker?useSSL=false&serverTimezone=UTC";
+    static final String USERNAME = "xavi";
+    static final String PASSWORD = "asdfghjkl;'";
     
-    private Connection connection;
+    private static ConnectionPool sharedPool;
+    private static SyncEngine sharedSync;
+
+    // 0 turns the user cache off, e.g. to benchmark the queries behind it
+    private static final int USER_CACHE_SIZE = Integer.getInteger("gymtracker.userCache.size", 1000);
+    private static final long USER_CACHE_TTL_MILLIS = 60 * 1000;
+    private static final long WRITE_BEHIND_WINDOW_MILLIS = 250;
+    private static final String USER_COLUMNS = "id, username, email, password, height, weight, bmi";
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private static final String INSERT_USER_QUERY = "INSERT INTO users (username, email, password) VALUES (?, ?, ?)";
+    private static final String USER_BY_ID_QUERY = "SELECT " + USER_COLUMNS + " FROM users WHERE id = ?";
+    private static final String USER_BY_USERNAME_QUERY = "SELECT " + USER_COLUMNS + " FROM users WHERE username = ?";
+    private static final String USER_EXISTS_QUERY = "SELECT COUNT(*) FROM users WHERE username = ? OR email = ?";
+    // What login and registration run first; the dashboard's details update is added in warmUp()
+    private static final String[] WARM_UP_QUERIES = {
+        USER_BY_USERNAME_QUERY, USER_BY_ID_QUERY, USER_EXISTS_QUERY, INSERT_USER_QUERY
+    };
+
+    private static final OperationMetrics REGISTER = Metrics.operation("db.register");
+    private static final OperationMetrics AUTHENTICATE = Metrics.operation("db.authenticate");
+    private static final OperationMetrics UPDATE_DETAILS = Metrics.operation("db.updateUserDetails");
+    private static final OperationMetrics GET_USER = Metrics.operation("db.getUserById");
+    private static final OperationMetrics USER_EXISTS = Metrics.operation("db.userExists");
+    private static final OperationMetrics LIST_USERS = Metrics.operation("db.listUsers");
+    private static final OperationMetrics STREAM_USERS = Metrics.operation("db.streamUsers");
+
+    private final ConnectionPool pool;
+    private final LoadingCache<Integer, User> users = new LoadingCache<>(USER_CACHE_SIZE, USER_CACHE_TTL_MILLIS);
+    private final LoadingCache<String, Integer> usernameIds = new LoadingCache<>(USER_CACHE_SIZE, USER_CACHE_TTL_MILLIS);
+    private final UserDetailsWriter detailsWriter;
+    private final PasswordHasher hasher = PasswordHasher.shared();
+    private final SyncEngine sync;
+    private final DetailsStampColumn stampColumn = new DetailsStampColumn();
+    private volatile DurabilityMode durabilityMode;
 
     public DatabaseManager() {
+        this(sharedPool(), Boolean.getBoolean("gymtracker.offline") ? sharedSync() : null);
+    }
+
+    public DatabaseManager(ConnectionPool pool) {
+        this(pool, null);
+    }
+
+    /**
+     * With a sync engine, the manager keeps working while the central
+     * database is unreachable: logins and lookups are answered from the
+     * engine's {@link LocalStore}, and height/weight/BMI updates are queued
+     * there and replayed when the link returns. Registration still needs
+     * the central database, since only it can tell whether a username is
+     * taken.
+     */
+    public DatabaseManager(ConnectionPool pool, SyncEngine sync) {
+        this.pool = pool;
+        this.sync = sync;
+        this.detailsWriter = new UserDetailsWriter(pool, WRITE_BEHIND_WINDOW_MILLIS, stampColumn);
+        this.durabilityMode = "write-behind".equalsIgnoreCase(System.getProperty("gymtracker.durability"))
+                ? DurabilityMode.WRITE_BEHIND : DurabilityMode.SYNC;
+        Metrics.startReporter();
+    }
+
+    // Every default-constructed manager borrows from the same pool instead of opening its own socket
+    private static synchronized ConnectionPool sharedPool() {
+        if (sharedPool == null || sharedPool.isClosed()) {
+            // Connector/J registers itself through the JDBC service loader on the first connect;
+            // without it on the classpath, fillToMinimum fails with "No suitable driver"
+            sharedPool = new ConnectionPool(new PoolConfig(URL, USERNAME, PASSWORD));
+            try {
+                sharedPool.fillToMinimum();
+            } catch (SQLException e) {
+                System.out.println("Connection failed!");
+                e.printStackTrace();
+            }
+        }
+        return sharedPool;
+    }
+
+    // Offline mode (-Dgymtracker.offline=true) keeps one local store and sync engine per process
+    private static synchronized SyncEngine sharedSync() {
+        if (sharedSync == null) {
+            try {
+                LocalStore store = LocalStore.open(System.getProperty("gymtracker.offline.url", LocalStore.DEFAULT_URL));
+                sharedSync = new SyncEngine(sharedPool, store);
+                sharedSync.start();
+            } catch (SQLException e) {
+                System.out.println("Local store unavailable, offline mode disabled");
+                e.printStackTrace();
+            }
+        }
+        return sharedSync;
+    }
+
+    private boolean isOffline() {
+        return sync != null && !sync.isOnline();
+    }
+
+    // True if the failure means the central database is unreachable and the local store should take over
+    private boolean goOffline(SQLException e) {
+        if (sync == null || !SyncEngine.isConnectivityError(e)) {
+            return false;
+        }
+        sync.reportOffline(e);
+        return true;
+    }
+
+    public boolean registerUser(User user) {
+        return register(user) == RegistrationResult.SUCCESS;
+    }
+
+    /**
+     * Inserts the user in one round trip, storing a PBKDF2 hash of the
+     * password. The unique indexes on username and email (see schema.sql)
+     * reject duplicates atomically, so there is no separate existence
+     * check to race against.
+     */
+    public RegistrationResult register(User user) {
+        if (isOffline()) {
+            System.out.println("Registration needs the central database, which is unreachable");
+            return RegistrationResult.FAILED;
+        }
+        long start = REGISTER.begin();
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-        } catch (ClassNotFoundException e) {
-            System.out.println("MySQL JDBC Driver not found!");
+            // Hashed before borrowing, so registrations queued on the hasher hold no pooled connections
+            String hash = hasher.hash(user.getPassword());
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(INSERT_USER_QUERY)) {
+                stmt.setString(1, user.getUsername());
+                stmt.setString(2, user.getEmail());
+                stmt.setString(3, hash);
+                return stmt.executeUpdate() > 0 ? RegistrationResult.SUCCESS : RegistrationResult.FAILED;
+            }
+        } catch (SQLException e) {
+            REGISTER.error(e);
+            if (isDuplicateKey(e)) {
+                return duplicateField(e);
+            }
+            goOffline(e);
             e.printStackTrace();
+            return RegistrationResult.FAILED;
+        } catch (RuntimeException e) {
+            REGISTER.error(e);
+            throw e;
+        } finally {
+            usernameIds.invalidate(user.getUsername());
+            REGISTER.end(start);
+        }
+    }
+
+    // MySQL reports duplicates as vendor code 1062 (SQLState 23000), H2 as SQLState 23505
+    private static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+    }
+
+    private static RegistrationResult duplicateField(SQLException e) {
+        String message = String.valueOf(e.getMessage()).toLowerCase();
+        if (message.contains("uk_users_email")) {
+            return RegistrationResult.DUPLICATE_EMAIL;
+        }
+        if (message.contains("uk_users_username")) {
+            return RegistrationResult.DUPLICATE_USERNAME;
+        }
+        return message.contains("email") ? RegistrationResult.DUPLICATE_EMAIL : RegistrationResult.DUPLICATE_USERNAME;
+    }
+
+    public User loginUser(String username, String password) {
+        return authenticate(username, password).getUser();
+    }
+
+    /**
+     * Verifies the password on the {@link PasswordHasher} pool. A stored
+     * hash made at an older cost, or a legacy plaintext password, is
+     * replaced with a fresh hash once the password has been verified.
+     * A database error is reported as WRONG_PASSWORD, the same as before
+     * this returned a status.
+     */
+    public LoginResult authenticate(String username, String password) {
+        long start = AUTHENTICATE.begin();
+        try {
+            User user = findUserByUsername(username);
+            if (user == null) {
+                // Same cost as a wrong password, so timing does not reveal which usernames exist
+                hasher.verifyDummy(password);
+                return LoginResult.failed(LoginResult.Status.UNKNOWN_USER);
+            }
+            if (!hasher.verify(password, user.getPassword())) {
+                return LoginResult.failed(LoginResult.Status.WRONG_PASSWORD);
+            }
+            User loggedIn = new User(user);
+            if (!isOffline() && hasher.needsRehash(user.getPassword())) {
+                upgradePassword(loggedIn, password);
+            }
+            return LoginResult.success(loggedIn);
         } catch (SQLException e) {
-            System.out.println("Connection failed!");
+            AUTHENTICATE.error(e);
             e.printStackTrace();
+        } catch (RuntimeException e) {
+            AUTHENTICATE.error(e);
+            throw e;
+        } finally {
+            AUTHENTICATE.end(start);
         }
+        return LoginResult.failed(LoginResult.Status.WRONG_PASSWORD);
     }
 
-    public boolean registerUser(User user) {
-        String query = "INSERT INTO users (username, email, password) VALUES (?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setString(1, user.getUsername());
-            stmt.setString(2, user.getEmail());
+    // Central database through the caches, or the local copy while offline
+    private User findUserByUsername(String username) throws SQLException {
+        if (!isOffline()) {
+            try {
+                Integer userId = usernameIds.get(username, this::loadUserIdByUsername);
+                return userId == null ? null : users.get(userId, this::loadUserById);
+            } catch (SQLException e) {
+                if (!goOffline(e)) {
+                    throw e;
+                }
+                AUTHENTICATE.error(e);
+            }
+        }
+        return sync.getStore().findUserByUsername(username);
+    }
+
+    private User findUserById(int userId) throws SQLException {
+        if (!isOffline()) {
+            try {
+                return users.get(userId, this::loadUserById);
+            } catch (SQLException e) {
+                if (!goOffline(e)) {
+                    throw e;
+                }
+                GET_USER.error(e);
+            }
+        }
+        return sync.getStore().findUserById(userId);
+    }
+
+    // Only replaces the hash that was verified, so a concurrent password change wins
+    private void upgradePassword(User user, String password) {
+        String newHash = hasher.hash(password);
+        String query = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setString(1, newHash);
+            stmt.setInt(2, user.getId());
             stmt.setString(3, user.getPassword());
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                user.setPassword(newHash);
+            }
         } catch (SQLException e) {
+            System.out.println("Could not upgrade the password hash for user " + user.getId());
             e.printStackTrace();
-            return false;
+        } finally {
+            users.invalidate(user.getId());
         }
     }
 
-    public User loginUser(String username, String password) {
-        String query = "SELECT * FROM users WHERE username = ? AND password = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new User(
-                    rs.getInt("id"),
-                    rs.getString("username"),
-                    rs.getString("email"),
-                    rs.getString("password"),
-                    rs.getDouble("height"),
-                    rs.getDouble("weight"),
-                    rs.getDouble("bmi")
-                );
+    public boolean updateUserDetails(int userId, double height, double weight, double bmi) {
+        long start = UPDATE_DETAILS.begin();
+        try {
+            return writeUserDetails(userId, height, weight, bmi);
+        } catch (RuntimeException e) {
+            UPDATE_DETAILS.error(e);
+            throw e;
+        } finally {
+            UPDATE_DETAILS.end(start);
+        }
+    }
+
+    private boolean writeUserDetails(int userId, double height, double weight, double bmi) {
+        // Stamped now, so replayed offline updates can tell which write is newer
+        long updatedAt = System.currentTimeMillis();
+        if (sync != null && (isOffline() || hasLocalPending(userId))) {
+            return queueLocally(userId, height, weight, bmi, updatedAt);
+        }
+        if (durabilityMode == DurabilityMode.WRITE_BEHIND || detailsWriter.hasPending(userId)) {
+            // Still-queued older values must not land after this one, so synchronous writes go through the queue too
+            try {
+                detailsWriter.enqueue(userId, height, weight, bmi, updatedAt);
+                return durabilityMode == DurabilityMode.WRITE_BEHIND || detailsWriter.flush();
+            } finally {
+                users.invalidate(userId);
+            }
+        }
+        try (Connection connection = pool.getConnection()) {
+            boolean stamped = stampColumn.isPresent(connection);
+            try (PreparedStatement stmt = connection.prepareStatement(UserDetailsWriter.updateQuery(stamped))) {
+                UserDetailsWriter.bindUpdate(stmt, stamped, userId, height, weight, bmi, updatedAt);
+                return stmt.executeUpdate() > 0;
+            }
+        } catch (SQLException e) {
+            UPDATE_DETAILS.error(e);
+            if (goOffline(e)) {
+                return queueLocally(userId, height, weight, bmi, updatedAt);
             }
+            e.printStackTrace();
+            return false;
+        } finally {
+            users.invalidate(userId);
+        }
+    }
+
+    // Updates already queued for this user must replay first, so later ones queue behind them
+    private boolean hasLocalPending(int userId) {
+        try {
+            return sync.getStore().hasPending(userId);
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
-        return null;
     }
 
-    public boolean updateUserDetails(int userId, double height, double weight, double bmi) {
-        String query = "UPDATE users SET height = ?, weight = ?, bmi = ? WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setDouble(1, height);
-            stmt.setDouble(2, weight);
-            stmt.setDouble(3, bmi);
-            stmt.setInt(4, userId);
-            return stmt.executeUpdate() > 0;
+    private boolean queueLocally(int userId, double height, double weight, double bmi, long updatedAt) {
+        try {
+            sync.getStore().enqueueDetails(userId, height, weight, bmi, updatedAt);
+            sync.wake();
+            return true;
         } catch (SQLException e) {
+            UPDATE_DETAILS.error(e);
+            System.out.println("Could not queue the update for user " + userId + " locally");
             e.printStackTrace();
             return false;
+        } finally {
+            users.invalidate(userId);
         }
     }
 
     public User getUserById(int userId) {
-        String query = "SELECT * FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        long start = GET_USER.begin();
+        try {
+            User user = findUserById(userId);
+            if (user != null) {
+                return new User(user);
+            }
+        } catch (SQLException e) {
+            GET_USER.error(e);
+            e.printStackTrace();
+        } finally {
+            GET_USER.end(start);
+        }
+        return null;
+    }
+
+    private User loadUserById(Integer userId) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(USER_BY_ID_QUERY)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return new User(
-                    rs.getInt("id"),
-                    rs.getString("username"),
-                    rs.getString("email"),
-                    rs.getString("password"),
-                    rs.getDouble("height"),
-                    rs.getDouble("weight"),
-                    rs.getDouble("bmi")
-                );
+                return syncWithLocal(detailsWriter.overlay(readUser(rs)));
+            }
+        }
+        return null;
+    }
+
+    // Fetches the whole row so the follow-up lookup by id is a cache hit
+    private Integer loadUserIdByUsername(String username) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(USER_BY_USERNAME_QUERY)) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                User user = syncWithLocal(detailsWriter.overlay(readUser(rs)));
+                users.put(user.getId(), user);
+                return user.getId();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies a row read from the central database into the local store, so
+     * the user can still log in if the link drops later. While updates for
+     * the user are still queued locally, the local details are the newer
+     * ones and are returned instead.
+     */
+    private User syncWithLocal(User user) {
+        if (sync == null) {
+            return user;
+        }
+        try {
+            LocalStore store = sync.getStore();
+            store.cacheUser(user);
+            if (store.hasPending(user.getId())) {
+                User local = store.findUserById(user.getId());
+                user.setHeight(local.getHeight());
+                user.setWeight(local.getWeight());
+                user.setBmi(local.getBmi());
             }
         } catch (SQLException e) {
+            System.out.println("Could not update the local copy of user " + user.getId());
             e.printStackTrace();
         }
-        return null;
+        return user;
+    }
+
+    private User readUser(ResultSet rs) throws SQLException {
+        return new User(
+            rs.getInt("id"),
+            rs.getString("username"),
+            rs.getString("email"),
+            rs.getString("password"),
+            rs.getDouble("height"),
+            rs.getDouble("weight"),
+            rs.getDouble("bmi")
+        );
+    }
+
+    /**
+     * One page of user summaries, filtered and sorted as the query says.
+     * Pages continue from {@link UserQuery#getAfter()} by sort key, so a
+     * deep page costs the same as the first one.
+     */
+    public UserPage listUsers(UserQuery query) {
+        List<UserSummary> page = new ArrayList<>();
+        // One extra row tells us whether there is another page
+        int limit = query.getPageSize() + 1;
+        long start = LIST_USERS.begin();
+        try {
+            queryUserSummaries(query, query.getAfter(), limit, page::add);
+        } catch (SQLException e) {
+            LIST_USERS.error(e);
+            e.printStackTrace();
+            return new UserPage(new ArrayList<>(), false);
+        } finally {
+            LIST_USERS.end(start);
+        }
+        boolean hasMore = page.size() > query.getPageSize();
+        if (hasMore) {
+            page.remove(page.size() - 1);
+        }
+        return new UserPage(page, hasMore);
+    }
+
+    /**
+     * Hands every matching user summary to the callback, starting after
+     * {@link UserQuery#getAfter()}. Rows are fetched in keyset pages, and
+     * each page is handed over only after its connection is back in the
+     * pool, so a slow callback never holds a connection or an open result
+     * set. Returns false if a query failed part way.
+     */
+    public boolean streamUsers(UserQuery query, Consumer<UserSummary> callback) {
+        UserSummary after = query.getAfter();
+        List<UserSummary> page = new ArrayList<>(STREAM_PAGE_SIZE);
+        long start = STREAM_USERS.begin();
+        try {
+            while (true) {
+                page.clear();
+                int rows = queryUserSummaries(query, after, STREAM_PAGE_SIZE, page::add);
+                for (UserSummary summary : page) {
+                    callback.accept(summary);
+                }
+                if (rows < STREAM_PAGE_SIZE) {
+                    return true;
+                }
+                after = page.get(page.size() - 1);
+            }
+        } catch (SQLException e) {
+            STREAM_USERS.error(e);
+            e.printStackTrace();
+            return false;
+        } finally {
+            STREAM_USERS.end(start);
+        }
+    }
+
+    private int queryUserSummaries(UserQuery query, UserSummary after, int limit, Consumer<UserSummary> sink)
+            throws SQLException {
+        String direction = query.isDescending() ? " DESC" : "";
+        String past = query.isDescending() ? " < ?" : " > ?";
+        StringBuilder sql = new StringBuilder("SELECT id, username, bmi FROM users WHERE 1 = 1");
+        if (query.getMinBmi() != null) {
+            sql.append(" AND bmi >= ?");
+        }
+        if (query.getMaxBmi() != null) {
+            sql.append(" AND bmi <= ?");
+        }
+        if (after != null) {
+            switch (query.getSort()) {
+                case USERNAME: sql.append(" AND username").append(past); break;
+                // Expanded rather than (bmi, id) > (?, ?) so MySQL uses idx_users_bmi_id for the range
+                case BMI: sql.append(" AND (bmi").append(past).append(" OR (bmi = ? AND id").append(past).append("))"); break;
+                default: sql.append(" AND id").append(past); break;
+            }
+        }
+        switch (query.getSort()) {
+            case USERNAME: sql.append(" ORDER BY username").append(direction); break;
+            case BMI: sql.append(" ORDER BY bmi").append(direction).append(", id").append(direction); break;
+            default: sql.append(" ORDER BY id").append(direction); break;
+        }
+        sql.append(" LIMIT ?");
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            int parameter = 1;
+            if (query.getMinBmi() != null) {
+                stmt.setDouble(parameter++, query.getMinBmi());
+            }
+            if (query.getMaxBmi() != null) {
+                stmt.setDouble(parameter++, query.getMaxBmi());
+            }
+            if (after != null) {
+                switch (query.getSort()) {
+                    case USERNAME:
+                        stmt.setString(parameter++, after.getUsername());
+                        break;
+                    case BMI:
+                        stmt.setDouble(parameter++, after.getBmi());
+                        stmt.setDouble(parameter++, after.getBmi());
+                        stmt.setInt(parameter++, after.getId());
+                        break;
+                    default:
+                        stmt.setInt(parameter++, after.getId());
+                        break;
+                }
+            }
+            stmt.setInt(parameter, limit);
+            stmt.setFetchSize(Math.min(limit, STREAM_PAGE_SIZE));
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(new UserSummary(rs.getInt("id"), rs.getString("username"), rs.getDouble("bmi")));
+                    rows++;
+                }
+            }
+            return rows;
+        }
     }
 
     public boolean userExists(String username, String email) {
-        String query = "SELECT COUNT(*) FROM users WHERE username = ? OR email = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        long start = USER_EXISTS.begin();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(USER_EXISTS_QUERY)) {
             stmt.setString(1, username);
             stmt.setString(2, email);
             ResultSet rs = stmt.executeQuery();
@@ -104,18 +548,93 @@ public class DatabaseManager {
                 return rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
+            USER_EXISTS.error(e);
             e.printStackTrace();
+        } finally {
+            USER_EXISTS.end(start);
         }
         return false;
     }
 
-    public void closeConnection() {
+    public PoolMetrics getPoolMetrics() {
+        return pool.metrics();
+    }
+
+    public CacheStats getUserCacheStats() {
+        return users.stats();
+    }
+
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    public void setDurabilityMode(DurabilityMode durabilityMode) {
+        this.durabilityMode = durabilityMode;
+        if (durabilityMode == DurabilityMode.SYNC) {
+            detailsWriter.flush();
+        }
+    }
+
+    public WriteBehindMetrics getWriteBehindMetrics() {
+        return detailsWriter.metrics();
+    }
+
+    /** The offline sync engine, or null when offline mode is off. */
+    public SyncEngine getSyncEngine() {
+        return sync;
+    }
+
+    public PasswordHasher getHasher() {
+        return hasher;
+    }
+
+    /**
+     * Opens the pool up to its minimum size and prepares the login,
+     * registration and dashboard statements on every open connection, so
+     * the first requests find them in each connection's statement cache.
+     * Also creates the dummy hash used for unknown usernames, which would
+     * otherwise be made on the first failed login. Returns the number of
+     * connections warmed.
+     */
+    int warmUp() throws SQLException {
+        hasher.verifyDummy("warm-up");
+        pool.fillToMinimum();
+        int count = Math.max(1, pool.metrics().getTotal());
+        // Held together, so each one is a different physical connection
+        List<Connection> held = new ArrayList<>();
         try {
-            if (connection != null && !connection.isClosed()) {
+            for (int i = 0; i < count; i++) {
+                Connection connection = pool.getConnection();
+                held.add(connection);
+                for (String query : WARM_UP_QUERIES) {
+                    connection.prepareStatement(query).close();
+                }
+                connection.prepareStatement(UserDetailsWriter.updateQuery(stampColumn.isPresent(connection))).close();
+            }
+        } finally {
+            for (Connection connection : held) {
                 connection.close();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
+        return held.size();
+    }
+
+    ConnectionPool getPool() {
+        return pool;
+    }
+
+    public void closeConnection() {
+        detailsWriter.close();
+        if (sync != null) {
+            closeSync(sync);
+        }
+        pool.close();
+    }
+
+    private static synchronized void closeSync(SyncEngine engine) {
+        if (engine == sharedSync) {
+            sharedSync = null;
+        }
+        engine.close();
     }
 }
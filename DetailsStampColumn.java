@@ -0,0 +1,44 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Whether the central {@code users} table has migration_004's
+ * {@code details_updated_at} column. Once it does, every height/weight/BMI
+ * write stamps it, so offline replay's last-writer-wins check sees writes
+ * from every client; without it, writes go out unstamped and keep
+ * working. Looked up on the first write and remembered, so applying the
+ * migration takes effect on the next start.
+ */
+final class DetailsStampColumn {
+    private static final String COLUMN = "details_updated_at";
+
+    private volatile Boolean present;
+
+    boolean isPresent(Connection connection) throws SQLException {
+        Boolean known = present;
+        if (known == null) {
+            known = lookUp(connection);
+            present = known;
+        }
+        return known;
+    }
+
+    private static boolean lookUp(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        // H2 reports unquoted names in upper case, MySQL as written
+        for (String table : new String[]{"users", "USERS"}) {
+            try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, table, null)) {
+                while (rs.next()) {
+                    if (COLUMN.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * How {@link DatabaseManager#updateUserDetails} reaches the database.
+ * SYNC writes before returning; WRITE_BEHIND queues the update and a
+ * background flush merges repeated updates for the same user into one
+ * batched transaction. Queued updates are lost if the process dies before
+ * the next flush.
+ */
+public enum DurabilityMode {
+    SYNC,
+    WRITE_BEHIND
+}
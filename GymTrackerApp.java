@@ -1,12 +1,12 @@
 import GymTrackerProject.src.models.User; // FIX: Import the User model class
-import GymTrackerProject.src.service.WorkoutRecommender; // FIX: Import the WorkoutRecommender service class
+import model.RecommendationEngine;
 import java.util.InputMismatchException;
 import java.util.Scanner;
 import java.util.UUID;
 
 /**
  * Main application class. Handles user input, creates the User object,
- * and calls the WorkoutRecommender service.
+ * and prints the workout plan from the shared RecommendationEngine.
  */
 public class GymTrackerApp {
 
@@ -85,10 +85,10 @@ public class GymTrackerApp {
         User currentUser = new User(age, heightCm, weightKg, UUID.randomUUID().toString()); 
         System.out.println("\nUser Profile Created: " + currentUser.toString());
 
-        // --- 3. Generate and Display Recommendation (Service Call) ---
-        // FIX: WorkoutRecommender class is now resolved
-        WorkoutRecommender recommender = new WorkoutRecommender();
-        String recommendation = recommender.generateRecommendation(currentUser);
+        // --- 3. Generate and Display Recommendation ---
+        double heightM = heightCm / 100;
+        double bmi = weightKg / (heightM * heightM);
+        String recommendation = RecommendationEngine.shared().recommend(bmi, age);
         
         System.out.println("\n--- Personalized Recommendation ---");
         System.out.println(recommendation);
@@ -0,0 +1,665 @@
+import GymTrackerProject.src.core.Workout;
+import GymTrackerProject.src.core.WorkoutLog;
+import GymTrackerProject.src.core.WorkoutSession;
+import model.ConnectionPool;
+import model.DatabaseManager;
+import model.Metrics;
+import model.OperationMetrics;
+import model.PoolConfig;
+import model.RecommendationEngine;
+import model.User;
+
+import javax.swing.JTextArea;
+import java.awt.GraphicsEnvironment;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Micro-benchmarks for the data-access and model hot paths, with results
+ * written as JSON so runs from different commits can be compared.
+ * <p>
+ * This tree has no build file to hang a JMH module off, so the harness
+ * follows JMH's method by hand. Each benchmark is warmed up and then
+ * measured over several fixed-length iterations, in each of several
+ * fresh JVMs ({@code --forks}, 0 to run in this one) so one JIT's
+ * profile doesn't decide the result; every operation's return value goes
+ * to a {@link Blackhole} so the work can't be optimized away. The result
+ * is mean ops/s over all forks' iterations with its standard deviation,
+ * the same shape JMH reports. The database benchmarks run against an
+ * in-memory H2 database, so the H2 jar must be on the classpath:
+ * <pre>
+ * java -cp out:h2.jar GymTrackerBenchmarks [--filter REGEX] [--sizes 10,1000,100000] [--forks 3]
+ *      [--out bench-results.json] [--compare previous.json] [--quick] [--startup RUNS]
+ * </pre>
+ * Password hashing is set to a token cost here so login measures data
+ * access; {@code java model.PasswordHasher} benchmarks the KDF itself.
+ * The user cache is switched off ({@code gymtracker.userCache.size=0}), so
+ * the db.* benchmarks measure a query per call rather than a map lookup.
+ * <p>
+ * {@code --startup} launches the app RUNS times in fresh JVMs and reports
+ * time to first paint of the login window as launches per second (1000 /
+ * ms, so higher is better like every other result), with and without the
+ * AppCDS archive that {@code run-gymtracker.sh --train} builds. It needs a
+ * display, and the archive is only used when the benchmark runs with the
+ * classpath it was trained with ({@code gymtracker.jar:lib/*} by default).
+ */
+public class GymTrackerBenchmarks {
+    private static final int USERS = 1000;
+
+    private static int warmupIterations = 3;
+    private static int measureIterations = 5;
+    private static long iterationMillis = 1000;
+
+    private static final Blackhole blackhole = new Blackhole();
+
+    interface Operation {
+        Object run() throws Exception;
+    }
+
+    private static class Result {
+        final String name;
+        final double opsPerSecond;
+        final double error;
+        final double[] samples;
+
+        Result(String name, double opsPerSecond, double error, double[] samples) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.error = error;
+            this.samples = samples;
+        }
+    }
+
+    /**
+     * Consumes benchmark results the way JMH's Blackhole does: the value is
+     * only stored, behind a check on a pseudo-random sequence the JIT cannot
+     * predict, so it can neither drop the work nor pay for a volatile write
+     * on every call.
+     */
+    static final class Blackhole {
+        private int seed = (int) System.nanoTime();
+        private volatile int mask = 1;
+        private Object escaped;
+
+        void consume(Object value) {
+            int current = mask;
+            seed = seed * 1664525 + 1013904223;
+            if ((seed & current) == 0) {
+                escaped = new WeakReference<>(value);
+                mask = (current << 1) + 1;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String filter = ".*";
+        int[] sizes = {10, 1000, 100_000};
+        Path out = Paths.get("bench-results.json");
+        Path compare = null;
+        int startupRuns = 0;
+        int forks = 3;
+        Path childOut = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter": filter = args[++i]; break;
+                case "--out": out = Paths.get(args[++i]); break;
+                case "--compare": compare = Paths.get(args[++i]); break;
+                case "--sizes":
+                    String[] parts = args[++i].split(",");
+                    sizes = new int[parts.length];
+                    for (int p = 0; p < parts.length; p++) {
+                        sizes[p] = Integer.parseInt(parts[p].trim());
+                    }
+                    break;
+                case "--quick":
+                    warmupIterations = 1;
+                    measureIterations = 3;
+                    iterationMillis = 300;
+                    forks = 1;
+                    break;
+                case "--forks": forks = Integer.parseInt(args[++i]); break;
+                case "--fork-child": childOut = Paths.get(args[++i]); break;
+                case "--startup": startupRuns = Integer.parseInt(args[++i]); break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+        if (System.getProperty("gymtracker.pbkdf2.iterations") == null) {
+            System.setProperty("gymtracker.pbkdf2.iterations", "1000");
+        }
+        if (System.getProperty("gymtracker.userCache.size") == null) {
+            System.setProperty("gymtracker.userCache.size", "0");
+        }
+        Pattern selected = Pattern.compile(filter);
+        List<Result> results = new ArrayList<>();
+
+        if (childOut != null || forks <= 0) {
+            databaseBenchmarks(selected, results);
+            historyBenchmarks(selected, sizes, results);
+            modelBenchmarks(selected, results);
+            if (childOut != null) {
+                writeJson(childOut, results);
+                return;
+            }
+        } else {
+            Map<String, double[]> samples = new LinkedHashMap<>();
+            for (int fork = 1; fork <= forks; fork++) {
+                System.out.println("# Fork " + fork + " of " + forks);
+                if (!runFork(args, samples)) {
+                    return;
+                }
+            }
+            System.out.println("\n# All forks");
+            for (Map.Entry<String, double[]> entry : samples.entrySet()) {
+                Result result = record(results, entry.getKey(), entry.getValue());
+                System.out.println(String.format("%-32s %14.1f ops/s  +/- %.1f  (%d iterations)",
+                        result.name, result.opsPerSecond, result.error, result.samples.length));
+            }
+        }
+        startupBenchmarks(selected, startupRuns, results);
+
+        writeJson(out, results);
+        System.out.println("Results written to " + out);
+        if (compare != null) {
+            compareWith(compare, results);
+        }
+    }
+
+    private static void databaseBenchmarks(Pattern selected, List<Result> results) throws Exception {
+        if (!anySelected(selected, "db.loginUser", "db.getUserById", "db.updateUserDetails")) {
+            return;
+        }
+        PoolConfig config = new PoolConfig("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", "sa", "");
+        config.setLeakThresholdMillis(0);
+        ConnectionPool pool = new ConnectionPool(config);
+        try (Connection connection = pool.getConnection(); Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE users (id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(50) NOT NULL UNIQUE,"
+                    + " email VARCHAR(100) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL,"
+                    + " height DOUBLE DEFAULT 0, weight DOUBLE DEFAULT 0, bmi DOUBLE DEFAULT 0, details_updated_at BIGINT)");
+        }
+        DatabaseManager databaseManager = new DatabaseManager(pool);
+        for (int i = 0; i < USERS; i++) {
+            databaseManager.register(new User("bench" + i, "bench" + i + "@example.com", "password" + i));
+        }
+        int[] ids = new int[USERS];
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT id FROM users ORDER BY id")) {
+            ResultSet rs = stmt.executeQuery();
+            for (int i = 0; rs.next(); i++) {
+                ids[i] = rs.getInt(1);
+            }
+        }
+
+        run(selected, results, "db.loginUser", () -> {
+            int i = ThreadLocalRandom.current().nextInt(USERS);
+            return databaseManager.loginUser("bench" + i, "password" + i);
+        });
+        run(selected, results, "db.getUserById", () ->
+                databaseManager.getUserById(ids[ThreadLocalRandom.current().nextInt(USERS)]));
+        run(selected, results, "db.updateUserDetails", () -> {
+            double height = 150 + ThreadLocalRandom.current().nextInt(50);
+            double weight = 50 + ThreadLocalRandom.current().nextInt(50);
+            return databaseManager.updateUserDetails(ids[ThreadLocalRandom.current().nextInt(USERS)],
+                    height, weight, weight / (height / 100 * height / 100));
+        });
+        databaseManager.closeConnection();
+    }
+
+    private static void historyBenchmarks(Pattern selected, int[] sizes, List<Result> results) throws Exception {
+        for (int size : sizes) {
+            String suffix = "[" + size + "]";
+            if (!anySelected(selected, "history.legacySave" + suffix, "history.legacyLoad" + suffix,
+                    "history.logOpen" + suffix, "history.logReadLatest" + suffix)) {
+                continue;
+            }
+            List<Workout> workouts = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                workouts.add(sampleWorkout(i));
+            }
+
+            // The old format: the whole list through one ObjectOutputStream
+            byte[] legacy = serialize(workouts);
+            run(selected, results, "history.legacySave" + suffix, () -> serialize(workouts));
+            run(selected, results, "history.legacyLoad" + suffix, () -> {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(legacy))) {
+                    return in.readObject();
+                }
+            });
+
+            Path logFile = Files.createTempFile("bench-history", ".log");
+            Files.delete(logFile);
+            try (WorkoutLog log = WorkoutLog.open(logFile)) {
+                for (Workout workout : workouts) {
+                    log.append(workout);
+                }
+            }
+            run(selected, results, "history.logOpen" + suffix, () -> {
+                try (WorkoutLog log = WorkoutLog.open(logFile)) {
+                    return log.getTitle(log.size() - 1);
+                }
+            });
+            try (WorkoutLog log = WorkoutLog.open(logFile)) {
+                run(selected, results, "history.logReadLatest" + suffix, () -> log.read(log.size() - 1));
+            }
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    private static void modelBenchmarks(Pattern selected, List<Result> results) throws Exception {
+        Workout workout = sampleWorkout(0);
+        WorkoutSession session = new WorkoutSession(workout);
+        run(selected, results, "model.getSummaryReport", () -> workout.getSummaryReport());
+
+        // What updateLogArea does per logged set: rebuild the report and patch the text area
+        WorkoutLogView view = new WorkoutLogView(new JTextArea());
+        run(selected, results, "model.updateLogArea", () -> {
+            session.addSet("Bench Press", 30, 8, 60);
+            view.showCurrentWorkout(workout.getSummaryReport() + "\n" + session.getLiftStatsReport());
+            session.removeLastSet();
+            return view;
+        });
+
+        if (selected.matcher("model.recommend").matches()) {
+            RecommendationEngine engine = RecommendationEngine.shared();
+            run(selected, results, "model.recommend", () -> engine.recommend(
+                    15 + ThreadLocalRandom.current().nextDouble(25), 18 + ThreadLocalRandom.current().nextInt(60)));
+        }
+
+        // What instrumentation adds to every call: compare metrics.timed with the bare metrics.nanoTime pair
+        run(selected, results, "metrics.nanoTime", () -> System.nanoTime() - System.nanoTime());
+        OperationMetrics operation = Metrics.operation("bench.timed");
+        run(selected, results, "metrics.timed", () -> {
+            operation.end(operation.begin());
+            return operation;
+        });
+    }
+
+    private static Workout sampleWorkout(int n) {
+        Workout workout = new Workout("Workout " + n);
+        WorkoutSession session = new WorkoutSession(workout);
+        String[] lifts = {"Bench Press", "Squat", "Deadlift"};
+        for (String lift : lifts) {
+            for (int set = 0; set < 4; set++) {
+                session.addSet(lift, 30, 8 + set, 50 + n % 40 + set * 5);
+            }
+        }
+        session.addCardio("Treadmill", 20, 3.5, 250);
+        return workout;
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void startupBenchmarks(Pattern selected, int runs, List<Result> results) throws Exception {
+        if (runs <= 0 || !anySelected(selected, "startup.firstPaint", "startup.firstPaint.appcds")) {
+            return;
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            System.out.println("Skipping startup benchmarks: no display");
+            return;
+        }
+        startup(selected, results, "startup.firstPaint", runs, "-Xshare:auto");
+        Path archive = Paths.get("gymtracker.jsa");
+        if (Files.exists(archive)) {
+            startup(selected, results, "startup.firstPaint.appcds", runs, "-XX:SharedArchiveFile=" + archive);
+        } else {
+            System.out.println("No " + archive + "; run ./run-gymtracker.sh --train to measure startup with AppCDS");
+        }
+    }
+
+    // One fresh JVM per sample, each exiting as soon as the login window has painted
+    private static void startup(Pattern selected, List<Result> results, String name, int runs, String jvmOption) throws Exception {
+        if (!selected.matcher(name).matches()) {
+            return;
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Pattern firstPaint = Pattern.compile("first paint (\\d+) ms");
+        double[] samples = new double[runs];
+        double totalMillis = 0;
+        // The first launch only warms the OS file cache and is not counted
+        for (int i = -1; i < runs; i++) {
+            Process launch = new ProcessBuilder(java, jvmOption, "-Dgymtracker.startup.exitAfterPaint=true",
+                    "-cp", System.getProperty("java.class.path"), "GymTrackerLauncher").redirectErrorStream(true).start();
+            String output = new String(launch.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            launch.waitFor();
+            Matcher m = firstPaint.matcher(output);
+            if (!m.find()) {
+                System.out.println(name + ": the launch did not report a first paint:\n" + output);
+                return;
+            }
+            if (i >= 0) {
+                long millis = Math.max(1, Long.parseLong(m.group(1)));
+                totalMillis += millis;
+                samples[i] = 1000.0 / millis;
+            }
+        }
+        Result result = record(results, name, samples);
+        System.out.println(String.format("%-32s %14.1f ops/s  +/- %.1f  (%.0f ms to first paint)",
+                name, result.opsPerSecond, result.error, totalMillis / runs));
+    }
+
+    private static boolean anySelected(Pattern selected, String... names) {
+        for (String name : names) {
+            if (selected.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void run(Pattern selected, List<Result> results, String name, Operation operation) throws Exception {
+        if (!selected.matcher(name).matches()) {
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation);
+        }
+        double[] samples = new double[measureIterations];
+        for (int i = 0; i < measureIterations; i++) {
+            samples[i] = iteration(operation);
+        }
+        Result result = record(results, name, samples);
+        System.out.println(String.format("%-32s %14.1f ops/s  +/- %.1f", name, result.opsPerSecond, result.error));
+    }
+
+    // Mean and sample standard deviation of per-iteration ops/s
+    private static Result record(List<Result> results, String name, double[] samples) {
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample;
+        }
+        mean /= samples.length;
+        double variance = 0;
+        for (double sample : samples) {
+            variance += (sample - mean) * (sample - mean);
+        }
+        double stddev = samples.length > 1 ? Math.sqrt(variance / (samples.length - 1)) : 0;
+        Result result = new Result(name, mean, stddev, samples);
+        results.add(result);
+        return result;
+    }
+
+    // Runs the operation until the iteration time is up (at least once) and returns ops/s
+    private static double iteration(Operation operation) throws Exception {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000;
+        long start = System.nanoTime();
+        long ops = 0;
+        do {
+            blackhole.consume(operation.run());
+            ops++;
+        } while (System.nanoTime() < deadline);
+        return ops / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // Runs every selected benchmark in a fresh JVM with this one's options and adds its samples to earlier forks'
+    private static boolean runFork(String[] args, Map<String, double[]> samples) throws Exception {
+        Path childOut = Files.createTempFile("bench-fork", ".json");
+        try {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add("GymTrackerBenchmarks");
+            command.addAll(List.of(args));
+            command.add("--fork-child");
+            command.add(childOut.toString());
+            int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exit != 0) {
+                System.out.println("The benchmark fork exited with status " + exit);
+                return false;
+            }
+            for (Map<?, ?> result : readResults(childOut)) {
+                List<?> forkSamples = (List<?>) result.get("samples");
+                double[] merged = samples.getOrDefault((String) result.get("benchmark"), new double[0]);
+                int from = merged.length;
+                merged = Arrays.copyOf(merged, from + forkSamples.size());
+                for (int i = 0; i < forkSamples.size(); i++) {
+                    merged[from + i] = (Double) forkSamples.get(i);
+                }
+                samples.put((String) result.get("benchmark"), merged);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(childOut);
+        }
+    }
+
+    private static void writeJson(Path out, List<Result> results) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"timestamp\": \"").append(Instant.now()).append("\",\n");
+        json.append("  \"commit\": \"").append(escape(gitCommit())).append("\",\n");
+        json.append("  \"java\": \"").append(escape(System.getProperty("java.version"))).append("\",\n");
+        json.append("  \"cores\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+        json.append("  \"results\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            json.append(String.format(Locale.ROOT,
+                    "    {\"benchmark\": \"%s\", \"mode\": \"thrpt\", \"opsPerSecond\": %.3f, \"error\": %.3f, \"iterations\": %d,",
+                    escape(result.name), result.opsPerSecond, result.error, result.samples.length));
+            json.append(" \"samples\": [");
+            for (int s = 0; s < result.samples.length; s++) {
+                json.append(s > 0 ? ", " : "").append(String.format(Locale.ROOT, "%.3f", result.samples[s]));
+            }
+            json.append("]}");
+            json.append(i < results.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+        Files.write(out, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void compareWith(Path previousFile, List<Result> results) throws IOException {
+        Map<String, Double> previous = new HashMap<>();
+        for (Map<?, ?> result : readResults(previousFile)) {
+            previous.put((String) result.get("benchmark"), (Double) result.get("opsPerSecond"));
+        }
+        System.out.println("\nCompared with " + previousFile + ":");
+        Map<String, String> rows = new LinkedHashMap<>();
+        for (Result result : results) {
+            Double before = previous.get(result.name);
+            rows.put(result.name, before == null ? "new"
+                    : String.format("%+.1f%%", (result.opsPerSecond - before) / before * 100));
+        }
+        rows.forEach((name, change) -> System.out.println(String.format("%-32s %s", name, change)));
+    }
+
+    // The "results" array of a file writeJson wrote, from this or an earlier version
+    private static List<Map<?, ?>> readResults(Path file) throws IOException {
+        Object root = new JsonReader(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).read();
+        List<Map<?, ?>> results = new ArrayList<>();
+        if (root instanceof Map && ((Map<?, ?>) root).get("results") instanceof List) {
+            for (Object result : (List<?>) ((Map<?, ?>) root).get("results")) {
+                if (result instanceof Map && ((Map<?, ?>) result).get("benchmark") instanceof String
+                        && ((Map<?, ?>) result).get("opsPerSecond") instanceof Double) {
+                    results.add((Map<?, ?>) result);
+                }
+            }
+        }
+        return results;
+    }
+
+    /** Just enough JSON for the results files: objects, arrays, strings, numbers, booleans and null. */
+    private static class JsonReader {
+        private final String text;
+        private int pos;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Object read() throws IOException {
+            Object value = value();
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("trailing characters");
+            }
+            return value;
+        }
+
+        private Object value() throws IOException {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw error("unexpected end of input");
+            }
+            char c = text.charAt(pos);
+            if (c == '{') {
+                Map<String, Object> object = new LinkedHashMap<>();
+                pos++;
+                skipWhitespace();
+                if (peek('}')) {
+                    return object;
+                }
+                do {
+                    skipWhitespace();
+                    String key = string();
+                    skipWhitespace();
+                    expect(':');
+                    object.put(key, value());
+                    skipWhitespace();
+                } while (peek(','));
+                expect('}');
+                return object;
+            }
+            if (c == '[') {
+                List<Object> array = new ArrayList<>();
+                pos++;
+                skipWhitespace();
+                if (peek(']')) {
+                    return array;
+                }
+                do {
+                    array.add(value());
+                    skipWhitespace();
+                } while (peek(','));
+                expect(']');
+                return array;
+            }
+            if (c == '"') {
+                return string();
+            }
+            for (String literal : new String[]{"true", "false", "null"}) {
+                if (text.startsWith(literal, pos)) {
+                    pos += literal.length();
+                    return literal.equals("null") ? null : Boolean.valueOf(literal);
+                }
+            }
+            int start = pos;
+            while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("unexpected character '" + c + "'");
+            }
+        }
+
+        private String string() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("truncated \\u escape");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private boolean peek(char c) {
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) throws IOException {
+            if (!peek(c)) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException("Malformed benchmark results at offset " + pos + ": " + message);
+        }
+    }
+
+    private static String gitCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return git.waitFor() == 0 ? commit : "unknown";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
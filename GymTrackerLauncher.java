@@ -0,0 +1,51 @@
+import controller.AuthController;
+import model.DataAccessContext;
+
+import javax.swing.SwingUtilities;
+import java.awt.AWTEvent;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
+import java.awt.event.WindowEvent;
+import java.time.Instant;
+
+/**
+ * Entry point for the member app. The login window is built and shown
+ * first; the shared data-access context (driver load, first connects,
+ * warm-up) starts on a background thread once the window has painted, and
+ * is closed by its shutdown hook when the app exits.
+ * <p>
+ * Time to first paint, counted from JVM start, is printed on every launch.
+ * With {@code -Dgymtracker.startup.exitAfterPaint=true} the app exits right
+ * after it, which is what the class-data sharing training run in
+ * {@code run-gymtracker.sh} and {@code GymTrackerBenchmarks --startup} use.
+ */
+public class GymTrackerLauncher {
+
+    public static void main(String[] args) {
+        long mainMillis = System.currentTimeMillis();
+        Toolkit.getDefaultToolkit().addAWTEventListener(new AWTEventListener() {
+            @Override
+            public void eventDispatched(AWTEvent event) {
+                if (event.getID() == WindowEvent.WINDOW_OPENED) {
+                    Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+                    // Runs after the repaint the newly shown window queued
+                    SwingUtilities.invokeLater(() -> firstPainted(mainMillis));
+                }
+            }
+        }, AWTEvent.WINDOW_EVENT_MASK);
+        SwingUtilities.invokeLater(() -> new AuthController().showLoginView());
+    }
+
+    private static void firstPainted(long mainMillis) {
+        long paintedMillis = System.currentTimeMillis();
+        long jvmStartMillis = ProcessHandle.current().info().startInstant()
+                .map(Instant::toEpochMilli).orElse(mainMillis);
+        boolean sharing = System.getProperty("java.vm.info", "").contains("sharing");
+        System.out.println(String.format("Startup: first paint %d ms after JVM start (main at %d ms, class sharing %s)",
+                paintedMillis - jvmStartMillis, mainMillis - jvmStartMillis, sharing ? "on" : "off"));
+        if (Boolean.getBoolean("gymtracker.startup.exitAfterPaint")) {
+            System.exit(0);
+        }
+        DataAccessContext.get().warmUpAsync();
+    }
+}
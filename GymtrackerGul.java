@@ -1,25 +1,38 @@
+import GymTrackerProject.src.core.HistoryAnalytics;
 import GymTrackerProject.src.core.Workout;
+import GymTrackerProject.src.core.WorkoutAutosave;
 import GymTrackerProject.src.core.WorkoutDAO;
-import GymTrackerProject.src.service.WorkoutRecommender;
-import GymTrackerProject.src.models.CardioExercise;
+import GymTrackerProject.src.core.WorkoutLog;
+import GymTrackerProject.src.core.WorkoutSession;
+import GymTrackerProject.src.core.WorkoutSnapshot;
 import GymTrackerProject.src.models.Exercise;
-import GymTrackerProject.src.models.Set;
 import GymTrackerProject.src.models.user;
 import GymTrackerProject.src.models.WeightLiftingExercise;
+import model.RecommendationEngine;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main GUI for the Gym Tracker application, utilizing Swing.
@@ -27,8 +40,30 @@ import java.util.stream.Collectors;
 public class GymTrackerGUI extends JFrame {
 
     private static final long serialVersionUID = 1L;
+    private static final Path HISTORY_LOG = Paths.get("workout_history.log");
+    private static final Path LEGACY_HISTORY = Paths.get("workout_history.ser");
+    private static final Path AUTOSAVE_JOURNAL = Paths.get("workout_draft.journal");
+    private static final long AUTOSAVE_DEBOUNCE_MILLIS = 500;
+    private static final DateTimeFormatter TITLE_TIME = DateTimeFormatter.ofPattern("HH:mm");
+    // Point these at the MySQL URL in DatabaseManager to share history across machines
+    private static final String WORKOUTS_URL = System.getProperty("gymtracker.workouts.url", "jdbc:h2:./gymtracker_workouts");
+    private static final String WORKOUTS_USER = System.getProperty("gymtracker.workouts.user", "sa");
+    private static final String WORKOUTS_PASSWORD = System.getProperty("gymtracker.workouts.password", "");
     private Workout currentWorkout;
-    private List<Workout> history = new ArrayList<>();
+    private transient WorkoutSession session;
+    private transient volatile WorkoutLog workoutLog;
+    private transient WorkoutLogView logView;
+    private transient HistoryAnalytics analytics;
+    private transient SwingWorker<HistoryAnalytics, Void> analyticsLoader;
+    private transient volatile WorkoutDAO workoutDAO;
+    // Number of history log positions already counted in analytics
+    private int analyticsCoverage;
+    private transient WorkoutAutosave autosave;
+    // Saves run here one at a time, in the order they were made, after the database connect
+    private transient ExecutorService saveExecutor;
+    private long draftId;
+    private final int userId;
+    private AnalyticsPanel analyticsPanel;
     private user currentUser;
 
     // --- GUI Components ---
@@ -43,26 +78,91 @@ public class GymTrackerGUI extends JFrame {
     private JTextField workoutTitleField;
     private JLabel currentWorkoutLabel;
 
-    public GymTrackerGUI(user user) {
+    /**
+     * @param userId the account id in the users table that saved workouts
+     *               are stored under; 0 or less keeps workouts in the local
+     *               history log only, since no account row would match
+     */
+    public GymTrackerGUI(user user, int userId) {
         super("Gym Tracker Application");
         this.currentUser = user;
-        this.currentWorkout = new Workout("New Workout - " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")));
-        
-        // Setup the DAO (using a mock connection for compilation)
+        this.userId = userId;
+        this.currentWorkout = new Workout("New Workout - " + LocalDateTime.now().format(TITLE_TIME));
+        this.session = new WorkoutSession(currentWorkout);
+        this.draftId = System.currentTimeMillis();
+        this.autosave = new WorkoutAutosave(AUTOSAVE_JOURNAL, AUTOSAVE_DEBOUNCE_MILLIS);
+        this.saveExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "workout-save");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Paint first; the database connect and the history load then run side by side
+        initializeGUI();
+        if (userId > 0) {
+            saveExecutor.execute(this::connectWorkoutStore);
+        } else {
+            System.out.println("No account id (-Dgymtracker.userId); workouts are saved to the history log only");
+        }
+        loadHistory();
+        restoreDraft();
+    }
+
+    // First task on the save thread, so any save waits for the connect to settle
+    private void connectWorkoutStore() {
+        // Without the database, workouts are still kept in the local history log
         try {
-             // In a real app, this connection would be managed properly
-             Connection mockConnection = DriverManager.getConnection("jdbc:h2:mem:testdb", "sa", "");
-             new WorkoutDAO(mockConnection); 
+            Connection connection = DriverManager.getConnection(WORKOUTS_URL, WORKOUTS_USER, WORKOUTS_PASSWORD);
+            WorkoutDAO dao = new WorkoutDAO(connection);
+            dao.createTablesIfMissing();
+            workoutDAO = dao;
         } catch (SQLException e) {
             System.err.println("Database connection setup failed: " + e.getMessage());
         }
+    }
 
-        initializeGUI();
-        loadHistory(); 
+    // Offers the workout a previous run was logging when it stopped without saving
+    private void restoreDraft() {
+        WorkoutSnapshot draft = WorkoutAutosave.readDraft(AUTOSAVE_JOURNAL);
+        if (draft == null || draft.isEmpty()) {
+            WorkoutAutosave.deleteDraft(AUTOSAVE_JOURNAL);
+            return;
+        }
+        String message = String.format("An unsaved workout '%s' (%d exercises, %d sets) from %s was found.%nRestore it?",
+                draft.getTitle(), draft.getExerciseCount(), draft.getSetCount(), new Date(draft.getTakenAtMillis()));
+        int choice = JOptionPane.showConfirmDialog(this, message, "Restore Workout", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (choice == JOptionPane.YES_OPTION) {
+            currentWorkout = draft.toWorkout();
+            session = new WorkoutSession(currentWorkout);
+            currentWorkoutLabel.setText("Current Workout: " + currentWorkout.getTitle());
+            workoutTitleField.setText(currentWorkout.getTitle());
+            updateLogArea();
+            // Adopt the journal under this run's draft id so saving the workout removes it
+            autosave.submit(draftId, draft);
+        } else {
+            WorkoutAutosave.deleteDraft(AUTOSAVE_JOURNAL);
+        }
+    }
+
+    private void autosave() {
+        autosave.submit(draftId, WorkoutSnapshot.of(currentWorkout));
     }
 
     private void initializeGUI() {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // Let a save in progress finish and the last autosave reach the disk
+                saveExecutor.shutdown();
+                try {
+                    saveExecutor.awaitTermination(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                autosave.close();
+            }
+        });
         setLayout(new BorderLayout(10, 10));
 
         // --- Header Panel ---
@@ -78,8 +178,12 @@ public class GymTrackerGUI extends JFrame {
         // Left Panel: Logging Interface
         mainContentPanel.add(createLoggingPanel());
 
-        // Right Panel: Workout Log / History
-        mainContentPanel.add(createLogHistoryPanel());
+        // Right Panel: Workout Log / History, and analytics over the history
+        JTabbedPane rightTabs = new JTabbedPane();
+        rightTabs.addTab("Workout Log", createLogHistoryPanel());
+        analyticsPanel = new AnalyticsPanel();
+        rightTabs.addTab("Analytics", analyticsPanel);
+        mainContentPanel.add(rightTabs);
 
         add(mainContentPanel, BorderLayout.CENTER);
 
@@ -197,6 +301,7 @@ public class GymTrackerGUI extends JFrame {
 
         workoutLogArea = new JTextArea(20, 30);
         workoutLogArea.setEditable(false);
+        logView = new WorkoutLogView(workoutLogArea);
         JScrollPane scrollPane = new JScrollPane(workoutLogArea);
         
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -213,20 +318,16 @@ public class GymTrackerGUI extends JFrame {
         if (!newTitle.isEmpty()) {
             currentWorkout.setTitle(newTitle);
             currentWorkoutLabel.setText("Current Workout: " + newTitle);
+            autosave();
         }
     }
 
     private void updateLogArea() {
-        // Displays current workout log and a summary of all history
-        String currentLog = currentWorkout.getSummaryReport();
-        
-        String historySummary = history.stream()
-            .map(w -> String.format("%s - %s", 
-                w.getDate().format(DateTimeFormatter.ofPattern("MMM dd")), 
-                w.getTitle()))
-            .collect(Collectors.joining("\n"));
-            
-        workoutLogArea.setText(currentLog + "\n\n--- Workout History ---\n" + historySummary);
+        // Only the current workout's lines change here; the history section is
+        // updated separately when a workout is saved or the history is loaded
+        String stats = session.getLiftStatsReport();
+        logView.showCurrentWorkout(stats.isEmpty() ? currentWorkout.getSummaryReport()
+                : currentWorkout.getSummaryReport() + "\n\n--- Lift Stats ---\n" + stats);
     }
     
     // --- Action Listeners and Logic ---
@@ -242,8 +343,6 @@ public class GymTrackerGUI extends JFrame {
             }
 
             String type = (String) exerciseTypeBox.getSelectedItem();
-            Exercise newExercise = null;
-            String exerciseId = UUID.randomUUID().toString();
 
             if ("WeightLifting".equals(type)) {
                 int reps = Integer.parseInt(repField.getText().trim());
@@ -254,20 +353,8 @@ public class GymTrackerGUI extends JFrame {
                     return;
                 }
                 
-                // Find existing exercise or create a new one to log sets continuously
-                WeightLiftingExercise existing = (WeightLiftingExercise) currentWorkout.getExercises().stream()
-                    .filter(ex -> ex instanceof WeightLiftingExercise && ex.getName().equalsIgnoreCase(name))
-                    .findFirst().orElse(null);
-                
-                if (existing != null) {
-                    existing.addSet(new Set(reps, weight));
-                    // Update duration if necessary, but keep the existing exercise instance
-                    existing.setDurationMinutes(duration);
-                } else {
-                    newExercise = new WeightLiftingExercise(name, duration, exerciseId);
-                    ((WeightLiftingExercise) newExercise).addSet(new Set(reps, weight));
-                    currentWorkout.addExercise(newExercise);
-                }
+                // Adds to the existing exercise with this name, or starts a new one
+                session.addSet(name, duration, reps, weight);
 
             } else if ("Cardio".equals(type)) {
                 double distance = Double.parseDouble(distanceField.getText().trim());
@@ -277,11 +364,11 @@ public class GymTrackerGUI extends JFrame {
                     JOptionPane.showMessageDialog(this, "Distance and Calories must be positive.", "Input Error", JOptionPane.ERROR_MESSAGE);
                     return;
                 }
-                newExercise = new CardioExercise(name, duration, exerciseId, distance, calories);
-                currentWorkout.addExercise(newExercise);
+                session.addCardio(name, duration, distance, calories);
             }
             
             updateLogArea();
+            autosave();
             
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Invalid number format in one of the fields. Please check your inputs.", "Input Error", JOptionPane.ERROR_MESSAGE);
@@ -292,21 +379,17 @@ public class GymTrackerGUI extends JFrame {
     }
 
     private void removeLastSet(ActionEvent e) {
-        if (currentWorkout.getExercises().isEmpty()) {
+        if (session.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Workout is empty. Nothing to remove.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        // Only allow removal from the last logged exercise, if it's WeightLifting
-        Exercise lastExercise = currentWorkout.getExercises().get(currentWorkout.getExercises().size() - 1);
+        // Only allow removal from the last logged exercise, if it's WeightLifting;
+        // the session drops the exercise itself once its last set is gone
+        WeightLiftingExercise wle = session.removeLastSet();
         
-        if (lastExercise instanceof WeightLiftingExercise) {
-            WeightLiftingExercise wle = (WeightLiftingExercise) lastExercise;
-            wle.removeLastSet();
-            
-            // If all sets are removed, remove the exercise itself
-            if (wle.getSets().isEmpty()) {
-                currentWorkout.getExercises().remove(currentWorkout.getExercises().size() - 1);
+        if (wle != null) {
+            if (session.getLiftStats(wle) == null) {
                 JOptionPane.showMessageDialog(this, "Last set removed. Exercise '" + wle.getName() + "' removed as it had no remaining sets.", "Info", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(this, "Last set of '" + wle.getName() + "' removed.", "Info", JOptionPane.INFORMATION_MESSAGE);
@@ -316,61 +399,170 @@ public class GymTrackerGUI extends JFrame {
         }
         
         updateLogArea();
+        autosave();
     }
 
     private void saveWorkout(ActionEvent e) {
-        if (currentWorkout.getExercises().isEmpty()) {
+        if (session.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Cannot save an empty workout.", "Save Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
         
-        // 1. Add current workout to history
-        history.add(currentWorkout);
-        
-        // 2. Serialize/save history to file
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream("workout_history.ser"))) {
-            oos.writeObject(history);
+        // 1. Hand the workout to the save thread; nothing on this thread touches it again
+        Workout saved = currentWorkout;
+        long savedDraftId = draftId;
+        startNewWorkout();
+
+        // 2. Append it to the history log (earlier workouts are not rewritten), then the database
+        saveExecutor.execute(() -> {
+            WorkoutLog log;
+            try {
+                log = openHistoryLog();
+                log.append(saved);
+            } catch (IOException | ClassNotFoundException | RuntimeException ex) {
+                ex.printStackTrace();
+                SwingUtilities.invokeLater(() -> saveFailed(saved, savedDraftId, ex));
+                return;
+            }
+            // The workout is in the log now: nothing below may hand it back to be appended again
+            int last = log.size() - 1;
+            LocalDate date = log.getDate(last);
+            String title = log.getTitle(last);
+            Exception databaseError = null;
+            WorkoutDAO dao = workoutDAO;
+            if (dao != null) {
+                try {
+                    dao.insert(userId, date, saved);
+                } catch (SQLException | RuntimeException ex) {
+                    databaseError = ex;
+                }
+            }
+            // Its crash-recovery copy can go too
+            autosave.discard(savedDraftId);
+            Exception error = databaseError;
+            SwingUtilities.invokeLater(() -> workoutSaved(saved, last, date, title, error));
+        });
+    }
+
+    private void startNewWorkout() {
+        currentWorkout = new Workout("New Workout - " + LocalDateTime.now().format(TITLE_TIME));
+        session = new WorkoutSession(currentWorkout);
+        draftId++;
+        currentWorkoutLabel.setText("Current Workout: " + currentWorkout.getTitle());
+        workoutTitleField.setText(currentWorkout.getTitle());
+        updateLogArea();
+    }
+
+    private void workoutSaved(Workout saved, int position, LocalDate date, String title, Exception databaseError) {
+        logView.addHistoryEntry(date, title);
+        // The analytics loader may already have counted this position while catching up
+        if (analytics != null && position >= analyticsCoverage) {
+            analytics.add(date, saved);
+            analyticsCoverage = position + 1;
+            analyticsPanel.showAnalytics(analytics);
+        }
+        if (databaseError != null) {
+            JOptionPane.showMessageDialog(this, "Workout saved to the history file, but not to the database: " + databaseError.getMessage(), "Database Error", JOptionPane.WARNING_MESSAGE);
+            databaseError.printStackTrace();
+        } else {
             JOptionPane.showMessageDialog(this, "Workout saved and history file updated successfully!", "Save Success", JOptionPane.INFORMATION_MESSAGE);
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(this, "Error saving history: " + ex.getMessage(), "File Error", JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
         }
-        
-        // 3. Reset for new workout
-        currentWorkout = new Workout("New Workout - " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")));
+    }
+
+    // Puts the unsaved workout back, followed by anything logged since, so nothing is lost
+    private void saveFailed(Workout saved, long savedDraftId, Exception ex) {
+        List<Exercise> loggedSince = new ArrayList<>(currentWorkout.getExercises());
+        for (Exercise exercise : loggedSince) {
+            saved.addExercise(exercise);
+        }
+        autosave.discard(draftId);
+        currentWorkout = saved;
+        session = new WorkoutSession(currentWorkout);
+        draftId = savedDraftId;
         currentWorkoutLabel.setText("Current Workout: " + currentWorkout.getTitle());
         workoutTitleField.setText(currentWorkout.getTitle());
         updateLogArea();
+        autosave();
+        JOptionPane.showMessageDialog(this, "Error saving history: " + ex.getMessage(), "File Error", JOptionPane.ERROR_MESSAGE);
     }
 
-    @SuppressWarnings("unchecked")
+    // Opening the log (and any legacy conversion) happens off the event dispatch thread
     private void loadHistory() {
-        File file = new File("workout_history.ser");
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                history = (List<Workout>) ois.readObject();
-                updateLogArea();
-            } catch (IOException | ClassNotFoundException ex) {
-                JOptionPane.showMessageDialog(this, "Error loading history: " + ex.getMessage(), "File Error", JOptionPane.ERROR_MESSAGE);
-                ex.printStackTrace();
+        new SwingWorker<WorkoutLog, Void>() {
+            @Override
+            protected WorkoutLog doInBackground() throws IOException, ClassNotFoundException {
+                return openHistoryLog();
             }
-        } else {
-            // History file does not exist, initialize empty history (already done by declaration)
+
+            @Override
+            protected void done() {
+                try {
+                    logView.showHistory(get());
+                    computeAnalytics();
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(GymTrackerGUI.this, "Error loading history: " + cause.getMessage(), "File Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
+    // One background scan of the log; after that, saves update the aggregates directly
+    private void computeAnalytics() {
+        if (analytics != null || analyticsLoader != null) {
+            return;
+        }
+        WorkoutLog log = workoutLog;
+        int scanned = log.size();
+        analyticsLoader = new SwingWorker<HistoryAnalytics, Void>() {
+            @Override
+            protected HistoryAnalytics doInBackground() throws IOException {
+                return HistoryAnalytics.compute(log, 0, scanned);
+            }
+
+            @Override
+            protected void done() {
+                analyticsLoader = null;
+                try {
+                    HistoryAnalytics computed = get();
+                    // Workouts saved while the scan was running
+                    int covered = scanned;
+                    for (; covered < log.size(); covered++) {
+                        computed.add(log.getDate(covered), log.read(covered));
+                    }
+                    analyticsCoverage = covered;
+                    analytics = computed;
+                    analyticsPanel.showAnalytics(analytics);
+                } catch (InterruptedException | ExecutionException | IOException ex) {
+                    analyticsPanel.showError(ex.getMessage());
+                    ex.printStackTrace();
+                }
+            }
+        };
+        analyticsLoader.execute();
+    }
+
+    // Called from the event dispatch thread and the save thread
+    private synchronized WorkoutLog openHistoryLog() throws IOException, ClassNotFoundException {
+        if (workoutLog == null) {
+            // One-shot migration from the old whole-list ObjectOutputStream file
+            if (Files.exists(LEGACY_HISTORY) && !Files.exists(HISTORY_LOG)) {
+                int converted = WorkoutLog.convertLegacy(LEGACY_HISTORY, HISTORY_LOG);
+                System.out.println("Converted " + converted + " workouts from " + LEGACY_HISTORY + " to " + HISTORY_LOG);
+            }
+            workoutLog = WorkoutLog.open(HISTORY_LOG);
         }
+        return workoutLog;
     }
     
     private void showHistory(ActionEvent e) {
-        String fullHistory = "--- Full Workout History ---\n\n" + 
-            history.stream()
-                .map(Workout::getSummaryReport)
-                .collect(Collectors.joining("\n\n-----------------------------------------\n"));
-                
-        JTextArea historyArea = new JTextArea(fullHistory);
-        historyArea.setEditable(false);
-        JScrollPane scrollPane = new JScrollPane(historyArea);
-        scrollPane.setPreferredSize(new Dimension(600, 700));
-
-        JOptionPane.showMessageDialog(this, scrollPane, "Full History Log", JOptionPane.PLAIN_MESSAGE);
+        try {
+            new HistoryBrowser(this, openHistoryLog()).setVisible(true);
+        } catch (IOException | ClassNotFoundException ex) {
+            JOptionPane.showMessageDialog(this, "Error reading history: " + ex.getMessage(), "File Error", JOptionPane.ERROR_MESSAGE);
+            ex.printStackTrace();
+        }
     }
     
     // --- User Setup and Main Method ---
@@ -402,6 +594,8 @@ public class GymTrackerGUI extends JFrame {
                 String userId = UUID.randomUUID().toString();
 
                 if (age > 0 && heightCm > 0 && weightKg > 0) {
+                    double heightM = heightCm / 100;
+                    showRecommendation(weightKg / (heightM * heightM), age);
                     return new user(age, heightCm, weightKg, userId);
                 } else {
                     JOptionPane.showMessageDialog(parent, "All fields must contain positive values.", "Input Error", JOptionPane.ERROR_MESSAGE);
@@ -415,15 +609,13 @@ public class GymTrackerGUI extends JFrame {
         return null; // User cancelled
     }
     
-    private static void showRecommendation(user user) {
-        WorkoutRecommender recommender = new WorkoutRecommender();
-        String recommendationHtml = recommender.generateRecommendation(user);
-        
-        // Use a JLabel to display the HTML-formatted recommendation
-        JLabel recommendationLabel = new JLabel(recommendationHtml);
-        recommendationLabel.setFont(new Font("SansSerif", Font.PLAIN, 14));
+    private static void showRecommendation(double bmi, int age) {
+        JTextArea recommendationArea = new JTextArea(RecommendationEngine.shared().recommend(bmi, age));
+        recommendationArea.setEditable(false);
+        recommendationArea.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        recommendationArea.setOpaque(false);
         
-        JOptionPane.showMessageDialog(null, recommendationLabel, "Personalized Workout Recommendation", JOptionPane.INFORMATION_MESSAGE);
+        JOptionPane.showMessageDialog(null, recommendationArea, "Personalized Workout Recommendation", JOptionPane.INFORMATION_MESSAGE);
     }
 
     public static void main(String[] args) {
@@ -435,8 +627,7 @@ public class GymTrackerGUI extends JFrame {
             user user = getUserInput(setupFrame);
             
             if (user != null) {
-                showRecommendation(user);
-                new GymTrackerGUI(user);
+                new GymTrackerGUI(user, Integer.getInteger("gymtracker.userId", 0));
             } else {
                 JOptionPane.showMessageDialog(setupFrame, "Application cancelled by user.", "Exit", JOptionPane.INFORMATION_MESSAGE);
                 System.exit(0);
@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * Result of {@link DataAccessContext#checkHealth()}.
+ */
+public class HealthCheck {
+    private final DataAccessContext.State state;
+    private final boolean databaseReachable;
+    private final double latencyMillis;
+    private final boolean offline;
+    private final long syncLagMillis;
+    private final PoolMetrics pool;
+    private final String error;
+
+    public HealthCheck(DataAccessContext.State state, boolean databaseReachable, double latencyMillis,
+                       boolean offline, long syncLagMillis, PoolMetrics pool, String error) {
+        this.state = state;
+        this.databaseReachable = databaseReachable;
+        this.latencyMillis = latencyMillis;
+        this.offline = offline;
+        this.syncLagMillis = syncLagMillis;
+        this.pool = pool;
+        this.error = error;
+    }
+
+    /** Running and able to serve requests, from the central database or the offline store. */
+    public boolean isHealthy() {
+        return state == DataAccessContext.State.RUNNING && (databaseReachable || offline);
+    }
+
+    public DataAccessContext.State getState() { return state; }
+    public boolean isDatabaseReachable() { return databaseReachable; }
+    public double getLatencyMillis() { return latencyMillis; }
+    public boolean isOffline() { return offline; }
+    public long getSyncLagMillis() { return syncLagMillis; }
+    public PoolMetrics getPool() { return pool; }
+    public String getError() { return error; }
+
+    @Override
+    public String toString() {
+        return String.format("HealthCheck[%s, state=%s, database=%s, latency=%.1fms, offline=%s, syncLag=%dms, pool=%s%s]",
+                isHealthy() ? "healthy" : "unhealthy", state, databaseReachable ? "up" : "down", latencyMillis,
+                offline, syncLagMillis, pool, error == null ? "" : ", error=" + error);
+    }
+}
@@ -0,0 +1,197 @@
+package GymTrackerProject.src.core;
+
+import GymTrackerProject.src.models.CardioExercise;
+import GymTrackerProject.src.models.Exercise;
+import GymTrackerProject.src.models.Set;
+import GymTrackerProject.src.models.WeightLiftingExercise;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates over the workout history: weekly volume per exercise,
+ * personal records and weekly cardio distance.
+ * <p>
+ * {@link #compute(WorkoutLog)} builds them in one pass over the log,
+ * decoding one workout at a time, and splits large logs into ranges that
+ * are scanned in parallel and merged. After that, {@link #add} keeps the
+ * aggregates current as workouts are saved. Instances are not thread-safe;
+ * hand a computed instance to one thread and update it only there.
+ */
+public class HistoryAnalytics {
+    // Below this many workouts a range is scanned on the current thread
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private final Map<String, String> displayNames = new LinkedHashMap<>();
+    private final Map<String, TreeMap<LocalDate, Double>> weeklyVolume = new HashMap<>();
+    private final Map<String, PersonalRecord> records = new HashMap<>();
+    private final TreeMap<LocalDate, Double> weeklyDistance = new TreeMap<>();
+    private int workoutCount;
+
+    /** Best set logged for one exercise, by estimated one-rep max. */
+    public static final class PersonalRecord {
+        private final String exercise;
+        private final double weight;
+        private final int reps;
+        private final LocalDate date;
+
+        PersonalRecord(String exercise, double weight, int reps, LocalDate date) {
+            this.exercise = exercise;
+            this.weight = weight;
+            this.reps = reps;
+            this.date = date;
+        }
+
+        public String getExercise() { return exercise; }
+        public double getWeight() { return weight; }
+        public int getReps() { return reps; }
+        public LocalDate getDate() { return date; }
+
+        public double getEstimatedOneRepMax() {
+            return LiftStats.estimateOneRepMax(reps, weight);
+        }
+    }
+
+    /**
+     * Scans the whole log, in parallel on the common fork/join pool when it
+     * is large enough to be worth splitting.
+     */
+    public static HistoryAnalytics compute(WorkoutLog log) throws IOException {
+        return compute(log, 0, log.size());
+    }
+
+    public static HistoryAnalytics compute(WorkoutLog log, int from, int to) throws IOException {
+        try {
+            return ForkJoinPool.commonPool().invoke(new ScanTask(log, from, to));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Folds one workout into the aggregates. */
+    public void add(LocalDate date, Workout workout) {
+        LocalDate week = weekOf(date);
+        for (Exercise exercise : workout.getExercises()) {
+            if (exercise instanceof WeightLiftingExercise) {
+                String key = key(exercise.getName());
+                displayNames.putIfAbsent(key, exercise.getName());
+                double volume = 0;
+                for (Set set : ((WeightLiftingExercise) exercise).getSets()) {
+                    volume += set.getReps() * set.getWeight();
+                    recordIfBetter(key, new PersonalRecord(displayNames.get(key), set.getWeight(), set.getReps(), date));
+                }
+                weeklyVolume.computeIfAbsent(key, k -> new TreeMap<>()).merge(week, volume, Double::sum);
+            } else if (exercise instanceof CardioExercise) {
+                weeklyDistance.merge(week, ((CardioExercise) exercise).getDistance(), Double::sum);
+            }
+        }
+        workoutCount++;
+    }
+
+    public int getWorkoutCount() {
+        return workoutCount;
+    }
+
+    /** Weight-lifting exercise names as first logged, in first-logged order. */
+    public List<String> getExerciseNames() {
+        return new ArrayList<>(displayNames.values());
+    }
+
+    /** Volume (reps x weight) per week, keyed by the Monday starting the week. */
+    public SortedMap<LocalDate, Double> getWeeklyVolume(String exercise) {
+        TreeMap<LocalDate, Double> weeks = weeklyVolume.get(key(exercise));
+        return weeks == null ? Collections.<LocalDate, Double>emptySortedMap() : Collections.unmodifiableSortedMap(weeks);
+    }
+
+    public SortedMap<LocalDate, Double> getWeeklyCardioDistance() {
+        return Collections.unmodifiableSortedMap(weeklyDistance);
+    }
+
+    public PersonalRecord getPersonalRecord(String exercise) {
+        return records.get(key(exercise));
+    }
+
+    /** Personal records, heaviest estimated one-rep max first. */
+    public List<PersonalRecord> getPersonalRecords() {
+        List<PersonalRecord> all = new ArrayList<>(records.values());
+        all.sort((a, b) -> Double.compare(b.getEstimatedOneRepMax(), a.getEstimatedOneRepMax()));
+        return all;
+    }
+
+    // Combines the aggregates of a later range into this one
+    private HistoryAnalytics merge(HistoryAnalytics later) {
+        later.displayNames.forEach(displayNames::putIfAbsent);
+        later.weeklyVolume.forEach((key, weeks) -> {
+            TreeMap<LocalDate, Double> mine = weeklyVolume.computeIfAbsent(key, k -> new TreeMap<>());
+            weeks.forEach((week, volume) -> mine.merge(week, volume, Double::sum));
+        });
+        later.records.forEach((key, record) -> recordIfBetter(key,
+                new PersonalRecord(displayNames.get(key), record.weight, record.reps, record.date)));
+        later.weeklyDistance.forEach((week, distance) -> weeklyDistance.merge(week, distance, Double::sum));
+        workoutCount += later.workoutCount;
+        return this;
+    }
+
+    // Ties keep the earlier record, so the date is when the PR was first set
+    private void recordIfBetter(String key, PersonalRecord candidate) {
+        PersonalRecord current = records.get(key);
+        if (current == null || candidate.getEstimatedOneRepMax() > current.getEstimatedOneRepMax()) {
+            records.put(key, candidate);
+        }
+    }
+
+    private static LocalDate weekOf(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static class ScanTask extends RecursiveTask<HistoryAnalytics> {
+        private final WorkoutLog log;
+        private final int from;
+        private final int to;
+
+        ScanTask(WorkoutLog log, int from, int to) {
+            this.log = log;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected HistoryAnalytics compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                HistoryAnalytics analytics = new HistoryAnalytics();
+                try {
+                    for (int i = from; i < to; i++) {
+                        analytics.add(log.getDate(i), log.read(i));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return analytics;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask earlier = new ScanTask(log, from, middle);
+            ScanTask later = new ScanTask(log, middle, to);
+            earlier.fork();
+            HistoryAnalytics laterResult = later.compute();
+            return earlier.join().merge(laterResult);
+        }
+    }
+}
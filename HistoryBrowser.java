@@ -0,0 +1,208 @@
+import GymTrackerProject.src.core.WorkoutLog;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Full-history browser. The list is backed by the workout log's index, so
+ * only rows scrolled into view are formatted, and full workout reports are
+ * decoded a page at a time on a background thread when a row is selected.
+ */
+class HistoryBrowser extends JDialog {
+    private static final int PAGE_SIZE = 50;
+    private static final int CACHED_PAGES = 8;
+    private static final DateTimeFormatter ROW_DATE = DateTimeFormatter.ofPattern("EEE, MMM dd yyyy");
+
+    private final WorkoutLog log;
+    private final HistoryListModel model;
+    private final JList<String> list;
+    private final JTextArea detailArea;
+    private final JTextField fromField;
+    private final JTextField toField;
+    private final Map<Integer, String[]> pages = new LinkedHashMap<Integer, String[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private SwingWorker<String[], Void> pageLoader;
+
+    HistoryBrowser(Frame owner, WorkoutLog log) {
+        super(owner, "Full History Log", true);
+        this.log = log;
+        this.model = new HistoryListModel();
+
+        list = new JList<>(model);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // A fixed row height lets JList size itself without formatting every row
+        list.setPrototypeCellValue("Www, Mmm 00 0000 - a reasonably long workout title");
+        list.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSelected();
+            }
+        });
+
+        detailArea = new JTextArea();
+        detailArea.setEditable(false);
+
+        fromField = new JTextField(10);
+        toField = new JTextField(10);
+        JButton rangeButton = new JButton("Show Range");
+        rangeButton.addActionListener(e -> applyRange());
+        JButton allButton = new JButton("Show All");
+        allButton.addActionListener(e -> {
+            fromField.setText("");
+            toField.setText("");
+            setRange(0, log.size());
+        });
+
+        JPanel rangePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        rangePanel.add(new JLabel("From (yyyy-mm-dd):"));
+        rangePanel.add(fromField);
+        rangePanel.add(new JLabel("To:"));
+        rangePanel.add(toField);
+        rangePanel.add(rangeButton);
+        rangePanel.add(allButton);
+
+        JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JScrollPane(list), new JScrollPane(detailArea));
+        split.setResizeWeight(0.4);
+
+        setLayout(new BorderLayout(5, 5));
+        add(rangePanel, BorderLayout.NORTH);
+        add(split, BorderLayout.CENTER);
+        setPreferredSize(new Dimension(900, 700));
+        pack();
+        setLocationRelativeTo(owner);
+
+        setRange(0, log.size());
+    }
+
+    private void applyRange() {
+        try {
+            int start = fromField.getText().trim().isEmpty() ? 0
+                    : firstOnOrAfter(LocalDate.parse(fromField.getText().trim()));
+            int end = toField.getText().trim().isEmpty() ? log.size()
+                    : firstOnOrAfter(LocalDate.parse(toField.getText().trim()).plusDays(1));
+            setRange(start, Math.max(start, end));
+        } catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Dates must look like 2024-01-31.", "Input Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Workouts are appended as they happen, so log order is date order
+    private int firstOnOrAfter(LocalDate date) {
+        int low = 0;
+        int high = log.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (log.getDate(mid).isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void setRange(int start, int end) {
+        model.setRange(start, end);
+        detailArea.setText(model.getSize() == 0 ? "No workouts in this range." : "");
+        if (model.getSize() > 0) {
+            list.setSelectedIndex(0);
+            list.ensureIndexIsVisible(0);
+        }
+    }
+
+    private void showSelected() {
+        int row = list.getSelectedIndex();
+        if (row < 0) {
+            return;
+        }
+        int position = model.positionAt(row);
+        int page = position / PAGE_SIZE;
+        String[] cached = pages.get(page);
+        if (cached != null) {
+            detailArea.setText(cached[position - page * PAGE_SIZE]);
+            detailArea.setCaretPosition(0);
+            return;
+        }
+        detailArea.setText("Loading...");
+        loadPage(page);
+    }
+
+    private void loadPage(int page) {
+        if (pageLoader != null) {
+            pageLoader.cancel(false);
+        }
+        int first = page * PAGE_SIZE;
+        int last = Math.min(log.size(), first + PAGE_SIZE);
+        pageLoader = new SwingWorker<String[], Void>() {
+            @Override
+            protected String[] doInBackground() throws IOException {
+                String[] reports = new String[last - first];
+                for (int i = first; i < last && !isCancelled(); i++) {
+                    reports[i - first] = log.read(i).getSummaryReport();
+                }
+                return reports;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    pages.put(page, get());
+                    showSelected();
+                } catch (InterruptedException | ExecutionException ex) {
+                    detailArea.setText("Error reading history: " + ex.getMessage());
+                    ex.printStackTrace();
+                }
+            }
+        };
+        pageLoader.execute();
+    }
+
+    /**
+     * Newest-first view over a [start, end) slice of the log. Rows are
+     * formatted on demand from the index when the list paints them.
+     */
+    private class HistoryListModel extends AbstractListModel<String> {
+        private int start;
+        private int end;
+
+        void setRange(int start, int end) {
+            int oldSize = getSize();
+            this.start = start;
+            this.end = end;
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+            if (getSize() > 0) {
+                fireIntervalAdded(this, 0, getSize() - 1);
+            }
+        }
+
+        int positionAt(int row) {
+            return end - 1 - row;
+        }
+
+        @Override
+        public int getSize() {
+            return end - start;
+        }
+
+        @Override
+        public String getElementAt(int row) {
+            int position = positionAt(row);
+            return log.getDate(position).format(ROW_DATE) + " - " + log.getTitle(position);
+        }
+    }
+}
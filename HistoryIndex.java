@@ -0,0 +1,43 @@
+package GymTrackerProject.src.core;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Compact in-memory index of the records in a {@link WorkoutLog}:
+ * parallel primitive arrays of id, file offset, record length and date,
+ * plus the title. Enough to list a member's history without decoding a
+ * single workout.
+ */
+class HistoryIndex {
+    private long[] ids = new long[16];
+    private long[] offsets = new long[16];
+    private int[] lengths = new int[16];
+    private long[] epochDays = new long[16];
+    private String[] titles = new String[16];
+    private int size;
+
+    void add(long id, long offset, int length, long epochDay, String title) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+        }
+        ids[size] = id;
+        offsets[size] = offset;
+        lengths[size] = length;
+        epochDays[size] = epochDay;
+        titles[size] = title;
+        size++;
+    }
+
+    int size() { return size; }
+    long id(int index) { return ids[index]; }
+    long offset(int index) { return offsets[index]; }
+    int length(int index) { return lengths[index]; }
+    LocalDate date(int index) { return LocalDate.ofEpochDay(epochDays[index]); }
+    String title(int index) { return titles[index]; }
+}
@@ -0,0 +1,75 @@
+package GymTrackerProject.src.core;
+
+import GymTrackerProject.src.models.Set;
+
+import java.util.List;
+
+/**
+ * Running aggregates for the sets of one weight-lifting exercise: total
+ * volume, total reps, top set and best estimated 1RM (Epley), kept up to
+ * date on every append and removal so reports never walk the sets. The
+ * sets themselves stay in the exercise; the maxima are only rescanned
+ * from them when a removed set was one of the maxima.
+ */
+public class LiftStats {
+    private int setCount;
+    private double totalVolume;
+    private int totalReps;
+    private double topWeight;
+    private int topSetReps;
+    private double bestOneRepMax;
+
+    public void add(int reps, double weight) {
+        totalVolume += reps * weight;
+        totalReps += reps;
+        if (setCount == 0 || weight > topWeight) {
+            topWeight = weight;
+            topSetReps = reps;
+        }
+        setCount++;
+        bestOneRepMax = Math.max(bestOneRepMax, estimateOneRepMax(reps, weight));
+    }
+
+    /**
+     * Takes a removed set out of the totals. {@code remaining} are the sets
+     * left after the removal, read only if the removed set was a maximum.
+     */
+    public void remove(int reps, double weight, List<Set> remaining) {
+        setCount--;
+        totalVolume -= reps * weight;
+        totalReps -= reps;
+        if (weight >= topWeight || estimateOneRepMax(reps, weight) >= bestOneRepMax) {
+            recomputeMaxima(remaining);
+        }
+    }
+
+    public int getSetCount() { return setCount; }
+    public double getTotalVolume() { return totalVolume; }
+    public int getTotalReps() { return totalReps; }
+    public double getTopWeight() { return topWeight; }
+    public int getTopSetReps() { return topSetReps; }
+
+    /** Best estimated one-rep max across the sets, using the Epley formula. */
+    public double getEstimatedOneRepMax() {
+        return bestOneRepMax;
+    }
+
+    /** Epley estimate of the one-rep max for a set of {@code reps} at {@code weight}. */
+    public static double estimateOneRepMax(int reps, double weight) {
+        return reps == 1 ? weight : weight * (1 + reps / 30.0);
+    }
+
+    private void recomputeMaxima(List<Set> sets) {
+        topWeight = 0;
+        topSetReps = 0;
+        bestOneRepMax = 0;
+        for (int i = 0; i < sets.size(); i++) {
+            Set set = sets.get(i);
+            if (i == 0 || set.getWeight() > topWeight) {
+                topWeight = set.getWeight();
+                topSetReps = set.getReps();
+            }
+            bestOneRepMax = Math.max(bestOneRepMax, estimateOneRepMax(set.getReps(), set.getWeight()));
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded store used while the central database is unreachable: a copy
+ * of every user row this machine has read, so logins keep working, and an
+ * outbox of height/weight/BMI updates waiting to be replayed by the
+ * {@link SyncEngine}. Each update is stamped with the time it was made;
+ * replay uses the stamp to settle conflicts with other machines. Updates
+ * the central database rejects outright are moved to a dead-letter table,
+ * so they stop holding back the ones queued after them.
+ * <p>
+ * Only PBKDF2 password hashes are copied. An account still on a legacy
+ * plaintext password gets no local password, so it cannot log in offline
+ * until its first online login has upgraded the hash.
+ * <p>
+ * Backed by an H2 file database by default; one connection is shared
+ * and every method is synchronized.
+ */
+public class LocalStore implements AutoCloseable {
+    public static final String DEFAULT_URL = "jdbc:h2:./gymtracker_local";
+
+    private static final String[] SCHEMA_STATEMENTS = {
+        "CREATE TABLE IF NOT EXISTS users ("
+            + " id INT PRIMARY KEY,"
+            + " username VARCHAR(50) NOT NULL,"
+            + " email VARCHAR(100) NOT NULL,"
+            + " password VARCHAR(255),"
+            + " height DOUBLE DEFAULT 0,"
+            + " weight DOUBLE DEFAULT 0,"
+            + " bmi DOUBLE DEFAULT 0,"
+            + " CONSTRAINT uk_local_users_username UNIQUE (username))",
+        "CREATE TABLE IF NOT EXISTS outbox ("
+            + " seq BIGINT AUTO_INCREMENT PRIMARY KEY,"
+            + " user_id INT NOT NULL,"
+            + " height DOUBLE NOT NULL,"
+            + " weight DOUBLE NOT NULL,"
+            + " bmi DOUBLE NOT NULL,"
+            + " updated_at BIGINT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS outbox_dead_letters ("
+            + " seq BIGINT PRIMARY KEY,"
+            + " user_id INT NOT NULL,"
+            + " height DOUBLE NOT NULL,"
+            + " weight DOUBLE NOT NULL,"
+            + " bmi DOUBLE NOT NULL,"
+            + " updated_at BIGINT NOT NULL,"
+            + " failed_at BIGINT NOT NULL,"
+            + " error VARCHAR(1000))",
+        // Stores created before plaintext passwords were kept out
+        "ALTER TABLE users ALTER COLUMN password SET NULL",
+        "UPDATE users SET password = NULL WHERE password NOT LIKE 'pbkdf2$%'"
+    };
+    private static final String USER_COLUMNS = "id, username, email, password, height, weight, bmi";
+
+    private final Connection connection;
+    // Mirrors COUNT(*) of the outbox so the common "nothing pending" check needs no query
+    private final AtomicLong pending = new AtomicLong();
+
+    private LocalStore(Connection connection) {
+        this.connection = connection;
+    }
+
+    public static LocalStore open(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url, "sa", "");
+        LocalStore store = new LocalStore(connection);
+        try (Statement stmt = connection.createStatement()) {
+            for (String statement : SCHEMA_STATEMENTS) {
+                stmt.execute(statement);
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM outbox")) {
+                rs.next();
+                store.pending.set(rs.getLong(1));
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Records a row read from the central database. Height, weight and BMI
+     * are left alone while this user has updates in the outbox, since the
+     * local values are newer.
+     */
+    public synchronized void cacheUser(User user) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE users SET username = ?, email = ?, password = ? WHERE id = ?")) {
+            update.setString(1, user.getUsername());
+            update.setString(2, user.getEmail());
+            update.setString(3, storedPassword(user));
+            update.setInt(4, user.getId());
+            if (update.executeUpdate() == 0) {
+                // A name that moved to another account since it was cached
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM users WHERE username = ?")) {
+                    delete.setString(1, user.getUsername());
+                    delete.executeUpdate();
+                }
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO users (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                    insert.setInt(1, user.getId());
+                    insert.setString(2, user.getUsername());
+                    insert.setString(3, user.getEmail());
+                    insert.setString(4, storedPassword(user));
+                    insert.setDouble(5, user.getHeight());
+                    insert.setDouble(6, user.getWeight());
+                    insert.setDouble(7, user.getBmi());
+                    insert.executeUpdate();
+                }
+                return;
+            }
+        }
+        if (!hasPending(user.getId())) {
+            try (PreparedStatement details = connection.prepareStatement(
+                    "UPDATE users SET height = ?, weight = ?, bmi = ? WHERE id = ?")) {
+                details.setDouble(1, user.getHeight());
+                details.setDouble(2, user.getWeight());
+                details.setDouble(3, user.getBmi());
+                details.setInt(4, user.getId());
+                details.executeUpdate();
+            }
+        }
+    }
+
+    private static String storedPassword(User user) {
+        return PasswordHasher.isHash(user.getPassword()) ? user.getPassword() : null;
+    }
+
+    public synchronized User findUserById(int userId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT " + USER_COLUMNS + " FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            return readUser(stmt);
+        }
+    }
+
+    public synchronized User findUserByUsername(String username) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT " + USER_COLUMNS + " FROM users WHERE username = ?")) {
+            stmt.setString(1, username);
+            return readUser(stmt);
+        }
+    }
+
+    /** Queues an update for replay and applies it to the local copy, in one transaction. */
+    public synchronized void enqueueDetails(int userId, double height, double weight, double bmi, long updatedAt)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO outbox (user_id, height, weight, bmi, updated_at) VALUES (?, ?, ?, ?, ?)")) {
+                stmt.setInt(1, userId);
+                stmt.setDouble(2, height);
+                stmt.setDouble(3, weight);
+                stmt.setDouble(4, bmi);
+                stmt.setLong(5, updatedAt);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "UPDATE users SET height = ?, weight = ?, bmi = ? WHERE id = ?")) {
+                stmt.setDouble(1, height);
+                stmt.setDouble(2, weight);
+                stmt.setDouble(3, bmi);
+                stmt.setInt(4, userId);
+                stmt.executeUpdate();
+            }
+            connection.commit();
+            pending.incrementAndGet();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /** The oldest queued updates, in the order they were made. */
+    public synchronized List<OutboxEntry> peekOutbox(int limit) throws SQLException {
+        List<OutboxEntry> entries = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT seq, user_id, height, weight, bmi, updated_at FROM outbox ORDER BY seq LIMIT ?")) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new OutboxEntry(rs.getLong("seq"), rs.getInt("user_id"), rs.getDouble("height"),
+                            rs.getDouble("weight"), rs.getDouble("bmi"), rs.getLong("updated_at")));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /** Removes replayed entries; they were read in seq order, so everything up to the last one goes. */
+    public synchronized void removeThrough(long seq) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM outbox WHERE seq <= ?")) {
+            stmt.setLong(1, seq);
+            pending.addAndGet(-stmt.executeUpdate());
+        }
+    }
+
+    /**
+     * Moves an entry the central database rejected from the outbox to the
+     * dead-letter table, with the error, in one transaction.
+     */
+    public synchronized void deadLetter(OutboxEntry entry, String error) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO outbox_dead_letters (seq, user_id, height, weight, bmi, updated_at, failed_at, error)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                stmt.setLong(1, entry.getSeq());
+                stmt.setInt(2, entry.getUserId());
+                stmt.setDouble(3, entry.getHeight());
+                stmt.setDouble(4, entry.getWeight());
+                stmt.setDouble(5, entry.getBmi());
+                stmt.setLong(6, entry.getUpdatedAt());
+                stmt.setLong(7, System.currentTimeMillis());
+                stmt.setString(8, error == null || error.length() <= 1000 ? error : error.substring(0, 1000));
+                stmt.executeUpdate();
+            }
+            int removed;
+            try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM outbox WHERE seq = ?")) {
+                stmt.setLong(1, entry.getSeq());
+                removed = stmt.executeUpdate();
+            }
+            connection.commit();
+            pending.addAndGet(-removed);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public long getPendingCount() {
+        return pending.get();
+    }
+
+    public synchronized long getDeadLetterCount() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM outbox_dead_letters")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public synchronized boolean hasPending(int userId) throws SQLException {
+        if (pending.get() == 0) {
+            return false;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT 1 FROM outbox WHERE user_id = ? LIMIT 1")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /** When the oldest queued update was made, or 0 if nothing is queued. */
+    public synchronized long getOldestPendingMillis() throws SQLException {
+        if (pending.get() == 0) {
+            return 0;
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(updated_at) FROM outbox")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private User readUser(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            return new User(rs.getInt("id"), rs.getString("username"), rs.getString("email"), rs.getString("password"),
+                    rs.getDouble("height"), rs.getDouble("weight"), rs.getDouble("bmi"));
+        }
+    }
+
+    /** One queued height/weight/BMI update. */
+    public static class OutboxEntry {
+        private final long seq;
+        private final int userId;
+        private final double height;
+        private final double weight;
+        private final double bmi;
+        private final long updatedAt;
+
+        OutboxEntry(long seq, int userId, double height, double weight, double bmi, long updatedAt) {
+            this.seq = seq;
+            this.userId = userId;
+            this.height = height;
+            this.weight = weight;
+            this.bmi = bmi;
+            this.updatedAt = updatedAt;
+        }
+
+        public long getSeq() { return seq; }
+        public int getUserId() { return userId; }
+        public double getHeight() { return height; }
+        public double getWeight() { return weight; }
+        public double getBmi() { return bmi; }
+        public long getUpdatedAt() { return updatedAt; }
+    }
+}
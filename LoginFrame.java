@@ -4,14 +4,19 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import controller.AsyncExecutor;
 import controller.AuthController;
+import model.LoginResult;
 import model.User;
 import controller.DashboardController;
+import controller.TaskScope;
 
 public class LoginFrame extends JFrame {
     private JTextField usernameField;
     private JPasswordField passwordField;
+    private JButton loginButton;
     private AuthController authController;
+    private final TaskScope tasks = new TaskScope();
 
     public LoginFrame(AuthController authController) {
         this.authController = authController;
@@ -57,7 +62,7 @@ public class LoginFrame extends JFrame {
         mainPanel.add(passwordField, gbc);
 
         JPanel buttonPanel = new JPanel(new FlowLayout());
-        JButton loginButton = new JButton("Login");
+        loginButton = new JButton("Login");
         JButton registerButton = new JButton("Register");
         
         loginButton.setPreferredSize(new Dimension(100, 30));
@@ -104,16 +109,37 @@ public class LoginFrame extends JFrame {
             return;
         }
 
-        User user = authController.authenticateUser(username, password);
-        if (user != null) {
-            JOptionPane.showMessageDialog(this, "Login successful!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            this.dispose();
-            DashboardController dashboardController = new DashboardController(user, authController.getDatabaseManager());
-            dashboardController.showDashboardView();
-        } else {
-            JOptionPane.showMessageDialog(this, "Invalid username or password.", 
-                                        "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        loginButton.setEnabled(false);
+        AsyncExecutor.onEdt(tasks.track(authController.loginAsync(username, password)),
+            result -> {
+                loginButton.setEnabled(true);
+                if (result.isSuccess()) {
+                    JOptionPane.showMessageDialog(this, "Login successful!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    this.dispose();
+                    DashboardController dashboardController = new DashboardController(result.getUser(), authController.getDatabaseManager());
+                    dashboardController.showDashboardView();
+                } else if (result.getStatus() == LoginResult.Status.THROTTLED) {
+                    long seconds = (result.getRetryAfterMillis() + 999) / 1000;
+                    JOptionPane.showMessageDialog(this, "Too many login attempts. Please try again in " + seconds + " seconds.", 
+                                                "Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Invalid username or password.", 
+                                                "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            },
+            error -> {
+                loginButton.setEnabled(true);
+                JOptionPane.showMessageDialog(this, "Login failed: " + error.getMessage(), 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+
+    @Override
+    public void dispose() {
+        tasks.cancelAll();
+        // The controller shows this frame again after registration
+        passwordField.setText("");
+        super.dispose();
     }
 
     private void handleRegister() {
@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * Outcome of a login attempt. UNKNOWN_USER and WRONG_PASSWORD are kept
+ * apart for throttling and monitoring; the login screen shows the same
+ * message for both.
+ */
+public class LoginResult {
+    public enum Status { SUCCESS, UNKNOWN_USER, WRONG_PASSWORD, THROTTLED }
+
+    private final Status status;
+    private final User user;
+    private final long retryAfterMillis;
+
+    private LoginResult(Status status, User user, long retryAfterMillis) {
+        this.status = status;
+        this.user = user;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public static LoginResult success(User user) {
+        return new LoginResult(Status.SUCCESS, user, 0);
+    }
+
+    public static LoginResult failed(Status status) {
+        return new LoginResult(status, null, 0);
+    }
+
+    public static LoginResult throttled(long retryAfterMillis) {
+        return new LoginResult(Status.THROTTLED, null, retryAfterMillis);
+    }
+
+    public Status getStatus() { return status; }
+    public User getUser() { return user; }
+    public boolean isSuccess() { return status == Status.SUCCESS; }
+
+    // Only set for THROTTLED
+    public long getRetryAfterMillis() { return retryAfterMillis; }
+}
@@ -0,0 +1,168 @@
+package controller;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limits login attempts before they reach the database: one token
+ * bucket per username, a global bucket for the whole process, and a
+ * short-lived cache of usernames the database did not know.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding its "theoretical
+ * arrival time" (the GCRA form of a token bucket), so taking a token is
+ * one compare-and-set with no lock. The global bucket is split into
+ * stripes picked by username hash, each with its share of the rate, so
+ * concurrent logins for different users rarely touch the same word.
+ * Counters are {@link LongAdder}s.
+ */
+public class LoginThrottle {
+    // Per username: a burst of 5 attempts, then one every 12 seconds
+    public static final int DEFAULT_USER_BURST = 5;
+    public static final long DEFAULT_USER_INTERVAL_MILLIS = 12_000;
+    // Whole process: a burst of 40, then 10 per second
+    public static final int DEFAULT_GLOBAL_BURST = 40;
+    public static final long DEFAULT_GLOBAL_INTERVAL_MILLIS = 100;
+    public static final long DEFAULT_NEGATIVE_TTL_MILLIS = 30_000;
+
+    // Above this many entries, idle buckets and expired negatives are swept on insert
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final Rate userRate;
+    private final Rate stripeRate;
+    private final long negativeTtlNanos;
+    private final AtomicLong[] globalStripes;
+    private final ConcurrentHashMap<String, AtomicLong> userBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> unknownUntil = new ConcurrentHashMap<>();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttledPerUser = new LongAdder();
+    private final LongAdder throttledGlobal = new LongAdder();
+    private final LongAdder negativeCacheHits = new LongAdder();
+    private final LongAdder unknownUsernames = new LongAdder();
+
+    public LoginThrottle() {
+        this(DEFAULT_USER_BURST, DEFAULT_USER_INTERVAL_MILLIS, DEFAULT_GLOBAL_BURST, DEFAULT_GLOBAL_INTERVAL_MILLIS,
+                DEFAULT_NEGATIVE_TTL_MILLIS);
+    }
+
+    public LoginThrottle(int userBurst, long userIntervalMillis, int globalBurst, long globalIntervalMillis,
+                         long negativeTtlMillis) {
+        int stripes = Integer.highestOneBit(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), globalBurst)));
+        this.userRate = new Rate(userBurst, TimeUnit.MILLISECONDS.toNanos(userIntervalMillis));
+        this.stripeRate = new Rate(Math.max(1, globalBurst / stripes), TimeUnit.MILLISECONDS.toNanos(globalIntervalMillis) * stripes);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.globalStripes = new AtomicLong[stripes];
+        long now = System.nanoTime();
+        for (int i = 0; i < stripes; i++) {
+            globalStripes[i] = new AtomicLong(now - stripeRate.tolerance);
+        }
+    }
+
+    /**
+     * Takes a token for this username and one from the global bucket.
+     * Returns 0 if the attempt may go ahead, otherwise how many
+     * milliseconds to wait before trying again.
+     */
+    public long acquire(String username) {
+        String key = key(username);
+        long now = System.nanoTime();
+        AtomicLong bucket = userBuckets.get(key);
+        if (bucket == null) {
+            sweepIfLarge(userBuckets.size(), now);
+            bucket = userBuckets.computeIfAbsent(key, k -> new AtomicLong(now - userRate.tolerance));
+        }
+        long wait = userRate.take(bucket, now);
+        if (wait > 0) {
+            throttledPerUser.increment();
+            return toMillis(wait);
+        }
+        wait = stripeRate.take(globalStripes[(key.hashCode() & 0x7fffffff) & (globalStripes.length - 1)], now);
+        if (wait > 0) {
+            throttledGlobal.increment();
+            return toMillis(wait);
+        }
+        allowed.increment();
+        return 0;
+    }
+
+    /** True if the database recently reported this username as unknown. */
+    public boolean isKnownUnknown(String username) {
+        Long until = unknownUntil.get(key(username));
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() < 0) {
+            unknownUntil.remove(key(username), until);
+            return false;
+        }
+        negativeCacheHits.increment();
+        return true;
+    }
+
+    public void recordUnknown(String username) {
+        unknownUsernames.increment();
+        long now = System.nanoTime();
+        sweepIfLarge(unknownUntil.size(), now);
+        unknownUntil.put(key(username), now + negativeTtlNanos);
+    }
+
+    /** Called after a successful login or a registration under this name. */
+    public void reset(String username) {
+        userBuckets.remove(key(username));
+        unknownUntil.remove(key(username));
+    }
+
+    public ThrottleStats stats() {
+        return new ThrottleStats(allowed.sum(), throttledPerUser.sum(), throttledGlobal.sum(),
+                negativeCacheHits.sum(), unknownUsernames.sum(), userBuckets.size(), unknownUntil.size());
+    }
+
+    // Buckets that have refilled completely carry no state worth keeping
+    private void sweepIfLarge(int size, long now) {
+        if (size < SWEEP_THRESHOLD) {
+            return;
+        }
+        userBuckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+        unknownUntil.entrySet().removeIf(entry -> entry.getValue() - now < 0);
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toMillis(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * GCRA parameters: one token is emitted every {@code interval} and up to
+     * {@code burst} may be taken at once.
+     */
+    private static final class Rate {
+        final long interval;
+        final long tolerance;
+
+        Rate(int burst, long interval) {
+            this.interval = interval;
+            this.tolerance = interval * (burst - 1);
+        }
+
+        // Returns 0 and advances the bucket if a token was available, otherwise the wait in nanos
+        long take(AtomicLong bucket, long now) {
+            while (true) {
+                long arrival = bucket.get();
+                long earliest = arrival - tolerance;
+                if (earliest - now > 0) {
+                    return earliest - now;
+                }
+                long next = (arrival - now > 0 ? arrival : now) + interval;
+                if (bucket.compareAndSet(arrival, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
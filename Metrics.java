@@ -0,0 +1,115 @@
+package model;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of {@link OperationMetrics}. Each operation is published over
+ * JMX shortly after it is first created, from a background thread, and
+ * {@link #startReporter} prints one summary line per period for the
+ * operations that have been called. The period comes from
+ * {@code -Dgymtracker.metrics.logSeconds} (default 60, 0 disables the
+ * log line).
+ */
+public final class Metrics {
+    private static final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService reporter;
+    // The first call to the platform MBean server loads most of java.management,
+    // so publishing stays off the thread that happens to create an operation
+    private static ExecutorService publisher;
+
+    private Metrics() {
+    }
+
+    public static OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, Metrics::create);
+    }
+
+    public static Collection<OperationMetrics> all() {
+        return new ArrayList<>(operations.values());
+    }
+
+    /** One line covering every operation called so far, in name order. */
+    public static String summaryLine() {
+        List<OperationMetrics> called = new ArrayList<>();
+        for (OperationMetrics operation : operations.values()) {
+            if (operation.getCount() > 0 || operation.getInFlight() > 0) {
+                called.add(operation);
+            }
+        }
+        called.sort((a, b) -> a.getName().compareTo(b.getName()));
+        StringBuilder line = new StringBuilder("metrics:");
+        for (OperationMetrics operation : called) {
+            line.append(" [").append(operation).append(']');
+        }
+        return line.toString();
+    }
+
+    public static synchronized void startReporter() {
+        startReporter(Long.getLong("gymtracker.metrics.logSeconds", 60));
+    }
+
+    public static synchronized void startReporter(long periodSeconds) {
+        if (reporter != null || periodSeconds <= 0) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            String line = summaryLine();
+            if (!line.equals("metrics:")) {
+                System.out.println(line);
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdown();
+            reporter = null;
+        }
+    }
+
+    private static OperationMetrics create(String name) {
+        OperationMetrics operation = new OperationMetrics(name);
+        publisher().execute(() -> publish(name, operation));
+        return operation;
+    }
+
+    private static synchronized ExecutorService publisher() {
+        if (publisher == null) {
+            publisher = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "metrics-jmx");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return publisher;
+    }
+
+    private static void publish(String name, OperationMetrics operation) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("gymtracker:type=Operation,name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(operation, objectName);
+            }
+        } catch (JMException e) {
+            System.out.println("Could not publish metrics for " + name + " over JMX");
+            e.printStackTrace();
+        }
+    }
+}
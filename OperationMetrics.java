@@ -0,0 +1,100 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, in-flight count and errors for one operation. Instrumented
+ * code brackets the call:
+ * <pre>
+ * long start = OP.begin();
+ * try { ... } catch (SQLException e) { OP.error(e); ... } finally { OP.end(start); }
+ * </pre>
+ * Errors are counted by SQLState for SQL failures, by exception class
+ * otherwise.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder inFlight = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public long begin() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    public void end(long start) {
+        latency.record(System.nanoTime() - start);
+        inFlight.decrement();
+    }
+
+    public void error(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        String key;
+        if (e instanceof SQLException) {
+            String state = ((SQLException) e).getSQLState();
+            key = "SQLState " + (state == null ? "unknown" : state);
+        } else {
+            key = e.getClass().getSimpleName();
+        }
+        errors.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public long getCount() { return latency.getCount(); }
+
+    @Override
+    public long getInFlight() { return inFlight.sum(); }
+
+    @Override
+    public long getErrorCount() {
+        long total = 0;
+        for (LongAdder count : errors.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByState() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        errors.forEach((state, count) -> snapshot.put(state, count.sum()));
+        return snapshot;
+    }
+
+    @Override
+    public double getMeanMillis() { return latency.getMeanNanos() / 1e6; }
+
+    @Override
+    public double getP50Millis() { return latency.percentileNanos(50) / 1e6; }
+
+    @Override
+    public double getP95Millis() { return latency.percentileNanos(95) / 1e6; }
+
+    @Override
+    public double getP99Millis() { return latency.percentileNanos(99) / 1e6; }
+
+    @Override
+    public double getMaxMillis() { return latency.getMaxNanos() / 1e6; }
+
+    @Override
+    public String toString() {
+        return String.format("%s n=%d inflight=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms errors=%s",
+                name, getCount(), getInFlight(), getP50Millis(), getP95Millis(), getP99Millis(), getMaxMillis(),
+                errors.isEmpty() ? "0" : getErrorsByState().toString());
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * JMX view of one instrumented operation, registered as
+ * {@code gymtracker:type=Operation,name=<operation>}.
+ */
+public interface OperationMetricsMXBean {
+    String getName();
+    long getCount();
+    long getInFlight();
+    long getErrorCount();
+    Map<String, Long> getErrorsByState();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP95Millis();
+    double getP99Millis();
+    double getMaxMillis();
+}
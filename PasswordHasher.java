@@ -0,0 +1,222 @@
+package model;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes in the form
+ * {@code pbkdf2$<iterations>$<salt>$<hash>} (salt and hash in unpadded
+ * Base64), so each hash carries the cost it was made with.
+ * <p>
+ * Hashing is deliberately CPU-heavy, so all of it runs on a fixed pool
+ * with one thread per core, at slightly below normal priority. Callers
+ * wait for a slot, and at most {@link #QUEUE_PER_THREAD} requests per
+ * thread may queue. A login burst therefore queues for CPU instead of
+ * starving the UI and JDBC threads. Comparisons are constant-time.
+ * <p>
+ * Run {@code java model.PasswordHasher} for hashes per second at a range
+ * of iteration counts; pick the highest cost the kiosk hardware can carry
+ * and set it with {@code -Dgymtracker.pbkdf2.iterations}.
+ */
+public class PasswordHasher {
+    public static final int DEFAULT_ITERATIONS = 310_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+    private static final int QUEUE_PER_THREAD = 16;
+    private static final long SLOT_TIMEOUT_MILLIS = 10_000;
+
+    private static PasswordHasher shared;
+
+    private final int iterations;
+    private final ExecutorService workers;
+    private final Semaphore slots;
+    private final SecureRandom random = new SecureRandom();
+    private volatile String dummyHash;
+
+    public PasswordHasher(int iterations, int threads) {
+        this.iterations = iterations;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "password-hasher-" + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        this.slots = new Semaphore(threads * (1 + QUEUE_PER_THREAD), true);
+    }
+
+    public static synchronized PasswordHasher shared() {
+        if (shared == null) {
+            shared = new PasswordHasher(Integer.getInteger("gymtracker.pbkdf2.iterations", DEFAULT_ITERATIONS),
+                    Runtime.getRuntime().availableProcessors());
+        }
+        return shared;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /** A new salted hash of the password at the current cost. */
+    public String hash(String password) {
+        return run(() -> {
+            byte[] salt = new byte[SALT_BYTES];
+            random.nextBytes(salt);
+            return encode(iterations, salt, derive(password, salt, iterations));
+        });
+    }
+
+    /**
+     * Checks a password against a stored value. Values without the
+     * {@code pbkdf2$} prefix are treated as legacy plaintext.
+     */
+    public boolean verify(String password, String stored) {
+        if (stored == null || !stored.startsWith(PREFIX + "$")) {
+            return stored != null && MessageDigest.isEqual(
+                    password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        int cost;
+        byte[] salt;
+        byte[] expected;
+        try {
+            cost = Integer.parseInt(parts[1]);
+            salt = Base64.getDecoder().decode(parts[2]);
+            expected = Base64.getDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Ignoring malformed password hash");
+            return false;
+        }
+        byte[] actual = run(() -> derive(password, salt, cost));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * Spends the same work as a real verification, for unknown usernames,
+     * so response time does not reveal which usernames exist.
+     */
+    public void verifyDummy(String password) {
+        if (dummyHash == null) {
+            dummyHash = hash("dummy");
+        }
+        verify(password, dummyHash);
+    }
+
+    /** True if the stored value is a PBKDF2 hash rather than legacy plaintext. */
+    public static boolean isHash(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    /** True for legacy plaintext and for hashes made with a different cost. */
+    public boolean needsRehash(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX + "$")) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        return parts.length != 4 || !parts[1].equals(Integer.toString(iterations));
+    }
+
+    private <T> T run(Callable<T> task) {
+        try {
+            if (!slots.tryAcquire(SLOT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Password hashing is overloaded, try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting to hash a password", e);
+        }
+        try {
+            Future<T> result = workers.submit(task);
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } finally {
+            slots.release();
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BYTES * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String encode(int iterations, byte[] salt, byte[] hash) {
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+    }
+
+    /**
+     * Benchmark: hashes per second on one thread and on the full pool for
+     * a range of iteration counts. Pass iteration counts as arguments to
+     * override the defaults.
+     */
+    public static void main(String[] args) {
+        int[] costs = args.length > 0 ? new int[args.length] : new int[]{100_000, 210_000, 310_000, 600_000};
+        for (int i = 0; i < args.length; i++) {
+            costs[i] = Integer.parseInt(args[i]);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("PBKDF2-HMAC-SHA256, " + cores + " cores");
+        System.out.println(String.format("%10s %14s %14s %12s", "iterations", "1 thread/s", cores + " threads/s", "ms/hash"));
+        for (int cost : costs) {
+            PasswordHasher hasher = new PasswordHasher(cost, cores);
+            // Let the JIT compile the HMAC loop before timing
+            for (int i = 0; i < 3; i++) {
+                hasher.hash("warm-up");
+            }
+
+            int single = 5;
+            long start = System.nanoTime();
+            for (int i = 0; i < single; i++) {
+                derive("benchmark-password", new byte[SALT_BYTES], cost);
+            }
+            double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+            int parallel = cores * 4;
+            Thread[] callers = new Thread[parallel];
+            start = System.nanoTime();
+            for (int i = 0; i < parallel; i++) {
+                callers[i] = new Thread(() -> hasher.hash("benchmark-password"));
+                callers[i].start();
+            }
+            for (Thread caller : callers) {
+                try {
+                    caller.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            double parallelSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println(String.format("%10d %14.1f %14.1f %12.1f", cost, single / singleSeconds,
+                    parallel / parallelSeconds, singleSeconds * 1000 / single));
+            hasher.workers.shutdown();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package model;
+
+/**
+ * Point-in-time view of a {@link ConnectionPool}. Wait times are how long
+ * callers blocked in {@code getConnection()}, in milliseconds.
+ */
+public class PoolMetrics {
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final long timeouts;
+    private final double waitP50Millis;
+    private final double waitP95Millis;
+    private final double waitP99Millis;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    public PoolMetrics(int active, int idle, int waiting, long timeouts,
+                       double waitP50Millis, double waitP95Millis, double waitP99Millis,
+                       long statementCacheHits, long statementCacheMisses) {
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.timeouts = timeouts;
+        this.waitP50Millis = waitP50Millis;
+        this.waitP95Millis = waitP95Millis;
+        this.waitP99Millis = waitP99Millis;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getTotal() { return active + idle; }
+    public int getWaiting() { return waiting; }
+    public long getTimeouts() { return timeouts; }
+    public double getWaitP50Millis() { return waitP50Millis; }
+    public double getWaitP95Millis() { return waitP95Millis; }
+    public double getWaitP99Millis() { return waitP99Millis; }
+    public long getStatementCacheHits() { return statementCacheHits; }
+    public long getStatementCacheMisses() { return statementCacheMisses; }
+
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d waiting=%d timeouts=%d wait p50=%.2fms p95=%.2fms p99=%.2fms"
+                + " stmt-cache hits=%d misses=%d",
+                active, idle, waiting, timeouts, waitP50Millis, waitP95Millis, waitP99Millis,
+                statementCacheHits, statementCacheMisses);
+    }
+}
@@ -0,0 +1,234 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Workout plans by BMI category and age band, shared by the dashboard and
+ * the console app.
+ * <p>
+ * Plan templates are read from {@code workout_plans.txt} (or the file named
+ * by {@code -Dgymtracker.plans}) and every (category, age band) plan is
+ * rendered once into an immutable table, so a recommendation is a bucket
+ * lookup plus the BMI header. The file's modification time is checked at
+ * most every {@link #RELOAD_CHECK_MILLIS} ms; an edited file is rendered
+ * into a new table and swapped in. A file that fails to parse leaves the
+ * current table in place.
+ */
+public class RecommendationEngine {
+    /** Pass as the age when it is not known; the plan then has no age-specific advice. */
+    public static final int UNKNOWN_AGE = -1;
+
+    private static final String DEFAULT_FILE = "workout_plans.txt";
+    private static final long RELOAD_CHECK_MILLIS = 2000;
+
+    private static RecommendationEngine shared;
+
+    private final Path file;
+    private volatile PlanTable table;
+    private volatile FileTime loadedModified;
+    private volatile long lastCheck;
+
+    public RecommendationEngine(Path file) throws IOException {
+        this.file = file;
+        reload();
+    }
+
+    public static synchronized RecommendationEngine shared() {
+        if (shared == null) {
+            try {
+                shared = new RecommendationEngine(Paths.get(System.getProperty("gymtracker.plans", DEFAULT_FILE)));
+            } catch (IOException e) {
+                throw new IllegalStateException("Workout plan templates could not be loaded", e);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * The full recommendation text: a header with the BMI, then the plan
+     * for the member's category and age band.
+     */
+    public String recommend(double bmi, int age) {
+        return "Based on your BMI of " + String.format("%.2f", bmi) + ":\n\n" + getPlan(bmi, age);
+    }
+
+    /** The precomputed plan for the bucket the BMI and age fall into. */
+    public String getPlan(double bmi, int age) {
+        reloadIfModified();
+        PlanTable current = table;
+        return current.plans[current.categoryOf(bmi)][current.ageBandOf(age) + 1];
+    }
+
+    public String getCategory(double bmi) {
+        PlanTable current = table;
+        return current.categories[current.categoryOf(bmi)];
+    }
+
+    /** Re-reads the templates now, regardless of the modification time. */
+    public synchronized void reload() throws IOException {
+        FileTime modified = Files.exists(file) ? Files.getLastModifiedTime(file) : null;
+        try (Reader reader = open()) {
+            table = PlanTable.parse(new BufferedReader(reader));
+        }
+        loadedModified = modified;
+        lastCheck = System.currentTimeMillis();
+    }
+
+    private void reloadIfModified() {
+        long now = System.currentTimeMillis();
+        if (now - lastCheck < RELOAD_CHECK_MILLIS) {
+            return;
+        }
+        synchronized (this) {
+            if (now - lastCheck < RELOAD_CHECK_MILLIS) {
+                return;
+            }
+            lastCheck = now;
+            FileTime modified = null;
+            try {
+                if (!Files.exists(file)) {
+                    return;
+                }
+                modified = Files.getLastModifiedTime(file);
+                if (!modified.equals(loadedModified)) {
+                    reload();
+                    System.out.println("Reloaded workout plan templates from " + file);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // Not retried until the file changes again
+                loadedModified = modified;
+                System.out.println("Keeping previous workout plans; " + file + " could not be loaded: " + e.getMessage());
+            }
+        }
+    }
+
+    // Falls back to the copy on the classpath when there is no file to watch
+    private Reader open() throws IOException {
+        if (Files.exists(file)) {
+            return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+        InputStream resource = RecommendationEngine.class.getClassLoader().getResourceAsStream(DEFAULT_FILE);
+        if (resource == null) {
+            throw new IOException(file + " not found");
+        }
+        return new InputStreamReader(resource, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Rendered plans indexed by [category][age band + 1]; column 0 is the
+     * plan without age-specific advice.
+     */
+    private static final class PlanTable {
+        private final String[] categories;
+        private final double[] bmiBelow;
+        private final int[] ageLow;
+        private final int[] ageHigh;
+        private final String[][] plans;
+
+        private PlanTable(String[] categories, double[] bmiBelow, int[] ageLow, int[] ageHigh, String[][] plans) {
+            this.categories = categories;
+            this.bmiBelow = bmiBelow;
+            this.ageLow = ageLow;
+            this.ageHigh = ageHigh;
+            this.plans = plans;
+        }
+
+        int categoryOf(double bmi) {
+            for (int i = 0; i < bmiBelow.length - 1; i++) {
+                if (bmi < bmiBelow[i]) {
+                    return i;
+                }
+            }
+            return bmiBelow.length - 1;
+        }
+
+        int ageBandOf(int age) {
+            for (int i = 0; i < ageLow.length; i++) {
+                if (age >= ageLow[i] && age <= ageHigh[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        static PlanTable parse(BufferedReader reader) throws IOException {
+            List<String> categoryNames = new ArrayList<>();
+            List<Double> bounds = new ArrayList<>();
+            List<List<String>> categoryLines = new ArrayList<>();
+            List<int[]> ages = new ArrayList<>();
+            List<List<String>> ageLines = new ArrayList<>();
+            List<String> current = null;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                if (trimmed.startsWith("category ")) {
+                    String header = trimmed.substring("category ".length());
+                    int below = header.lastIndexOf(" below ");
+                    categoryNames.add(below < 0 ? header : header.substring(0, below));
+                    bounds.add(below < 0 ? Double.POSITIVE_INFINITY
+                            : Double.parseDouble(header.substring(below + " below ".length())));
+                    current = new ArrayList<>();
+                    categoryLines.add(current);
+                } else if (trimmed.startsWith("age ")) {
+                    String[] range = trimmed.substring("age ".length()).split("-", -1);
+                    int low = Integer.parseInt(range[0].trim());
+                    int high = range.length < 2 || range[1].trim().isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(range[1].trim());
+                    ages.add(new int[]{low, high});
+                    current = new ArrayList<>();
+                    ageLines.add(current);
+                } else if (current == null) {
+                    throw new IllegalArgumentException("Plan line before any category or age header: " + trimmed);
+                } else {
+                    current.add(trimmed);
+                }
+            }
+            if (categoryNames.isEmpty()) {
+                throw new IllegalArgumentException("No BMI categories defined");
+            }
+
+            int[] ageLow = new int[ages.size()];
+            int[] ageHigh = new int[ages.size()];
+            for (int i = 0; i < ages.size(); i++) {
+                ageLow[i] = ages.get(i)[0];
+                ageHigh[i] = ages.get(i)[1];
+            }
+            double[] bmiBelow = new double[bounds.size()];
+            String[][] plans = new String[categoryNames.size()][ages.size() + 1];
+            for (int c = 0; c < categoryNames.size(); c++) {
+                bmiBelow[c] = bounds.get(c);
+                StringBuilder base = new StringBuilder();
+                base.append("Category: ").append(categoryNames.get(c)).append("\n\n");
+                base.append("Recommended Workout Plan:\n");
+                for (String planLine : categoryLines.get(c)) {
+                    base.append(planLine).append('\n');
+                }
+                plans[c][0] = base.toString();
+                for (int a = 0; a < ages.size(); a++) {
+                    StringBuilder plan = new StringBuilder(base);
+                    plan.append("\nFor ages ").append(ageLow[a])
+                            .append(ageHigh[a] == Integer.MAX_VALUE ? "+" : "-" + ageHigh[a]).append(":\n");
+                    for (String planLine : ageLines.get(a)) {
+                        plan.append(planLine).append('\n');
+                    }
+                    plans[c][a + 1] = plan.toString();
+                }
+            }
+            return new PlanTable(categoryNames.toArray(new String[0]), bmiBelow, ageLow, ageHigh, plans);
+        }
+    }
+}
@@ -4,7 +4,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import controller.AsyncExecutor;
 import controller.AuthController;
+import controller.TaskScope;
+import model.RegistrationResult;
 import model.User;
 
 public class RegisterFrame extends JFrame {
@@ -12,7 +15,9 @@ public class RegisterFrame extends JFrame {
     private JTextField emailField;
     private JPasswordField passwordField;
     private JPasswordField confirmPasswordField;
+    private JButton registerButton;
     private AuthController authController;
+    private final TaskScope tasks = new TaskScope();
 
     public RegisterFrame(AuthController authController) {
         this.authController = authController;
@@ -72,7 +77,7 @@ public class RegisterFrame extends JFrame {
         mainPanel.add(confirmPasswordField, gbc);
 
         JPanel buttonPanel = new JPanel(new FlowLayout());
-        JButton registerButton = new JButton("Register");
+        registerButton = new JButton("Register");
         JButton loginButton = new JButton("Back to Login");
         
         registerButton.setPreferredSize(new Dimension(100, 30));
@@ -133,23 +138,53 @@ public class RegisterFrame extends JFrame {
             return;
         }
 
-        if (authController.userExists(username, email)) {
-            JOptionPane.showMessageDialog(this, "Username or email already exists.", 
-                                        "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
+        registerButton.setEnabled(false);
         User newUser = new User(username, email, password);
-        if (authController.registerUser(newUser)) {
-            JOptionPane.showMessageDialog(this, "Registration successful! Please login.", 
-                                        "Success", JOptionPane.INFORMATION_MESSAGE);
-            handleBackToLogin();
-        } else {
-            JOptionPane.showMessageDialog(this, "Registration failed. Please try again.", 
-                                        "Error", JOptionPane.ERROR_MESSAGE);
+        AsyncExecutor.onEdt(tasks.track(authController.registerAsync(newUser)),
+            this::showRegistrationResult,
+            this::showRegistrationError);
+    }
+
+    private void showRegistrationResult(RegistrationResult result) {
+        registerButton.setEnabled(true);
+        switch (result) {
+            case SUCCESS:
+                JOptionPane.showMessageDialog(this, "Registration successful! Please login.", 
+                                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                usernameField.setText("");
+                emailField.setText("");
+                handleBackToLogin();
+                break;
+            case DUPLICATE_USERNAME:
+                JOptionPane.showMessageDialog(this, "Username already exists.", 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+                break;
+            case DUPLICATE_EMAIL:
+                JOptionPane.showMessageDialog(this, "An account with this email already exists.", 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+                break;
+            default:
+                JOptionPane.showMessageDialog(this, "Registration failed. Please try again.", 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+                break;
         }
     }
 
+    private void showRegistrationError(Throwable error) {
+        registerButton.setEnabled(true);
+        JOptionPane.showMessageDialog(this, "Registration failed: " + error.getMessage(), 
+                                    "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    @Override
+    public void dispose() {
+        tasks.cancelAll();
+        // The controller shows this frame again the next time someone registers
+        passwordField.setText("");
+        confirmPasswordField.setText("");
+        super.dispose();
+    }
+
     private void handleBackToLogin() {
         this.dispose();
         authController.showLoginView();
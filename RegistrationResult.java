@@ -0,0 +1,12 @@
+package model;
+
+/**
+ * Outcome of {@link DatabaseManager#register(User)}. The duplicate values
+ * say which unique index rejected the insert.
+ */
+public enum RegistrationResult {
+    SUCCESS,
+    DUPLICATE_USERNAME,
+    DUPLICATE_EMAIL,
+    FAILED
+}
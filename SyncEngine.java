@@ -0,0 +1,348 @@
+package model;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays the {@link LocalStore} outbox to the central database on a
+ * background thread, in batches of {@link #BATCH_SIZE} updates per
+ * transaction.
+ * <p>
+ * Conflicts are settled last-writer-wins: each update carries the time it
+ * was made, and replay only overwrites a row whose
+ * {@code details_updated_at} is not newer, so an update made elsewhere
+ * while this machine was offline is kept. Every client stamps that column
+ * on its height/weight/BMI writes once migration_004 has added it (see
+ * {@link DetailsStampColumn}); BmiBackfillJob only rewrites the BMI from
+ * the row's own height and weight, so it leaves the stamp alone. This
+ * relies on the kiosks' clocks being roughly in step. The engine checks
+ * for the column before its first replay; without it, updates are
+ * replayed unconditionally in the order they were made.
+ * <p>
+ * If the central database rejects a batch for any reason other than
+ * being unreachable or a transient conflict, its entries are replayed one
+ * at a time and the ones that still fail are moved to the local store's
+ * dead-letter table, so they stop holding back the updates queued after
+ * them.
+ * <p>
+ * When the central database cannot be reached, the engine marks itself
+ * offline, and {@link DatabaseManager} then goes straight to the local
+ * store instead of waiting on connection timeouts. Reconnects are tried
+ * with exponential backoff and jitter, from {@link #INITIAL_BACKOFF_MILLIS}
+ * up to {@link #MAX_BACKOFF_MILLIS}.
+ */
+public class SyncEngine implements SyncEngineMXBean, AutoCloseable {
+    public static final int BATCH_SIZE = 200;
+    public static final long INITIAL_BACKOFF_MILLIS = 1000;
+    public static final long MAX_BACKOFF_MILLIS = 60_000;
+    // How often an idle engine looks at the outbox without being woken
+    private static final long IDLE_CHECK_MILLIS = 30_000;
+
+    private static final String REPLAY_QUERY = "UPDATE users SET height = ?, weight = ?, bmi = ?, details_updated_at = ?"
+            + " WHERE id = ? AND (details_updated_at IS NULL OR details_updated_at <= ?)";
+    // For a central database without migration_004's details_updated_at
+    private static final String UNSTAMPED_REPLAY_QUERY = "UPDATE users SET height = ?, weight = ?, bmi = ? WHERE id = ?";
+    private static final OperationMetrics REPLAY = Metrics.operation("sync.replay");
+
+    private final ConnectionPool pool;
+    private final LocalStore store;
+    private final DetailsStampColumn stampColumn = new DetailsStampColumn();
+    private boolean stampChecked;
+    private final Thread worker;
+    private final Object signal = new Object();
+    private volatile boolean online = true;
+    private volatile boolean running = true;
+    private boolean wakeRequested;
+
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private volatile long lastSyncMillis;
+
+    public SyncEngine(ConnectionPool pool, LocalStore store) {
+        this.pool = pool;
+        this.store = store;
+        this.worker = new Thread(this::runLoop, "sync-engine");
+        this.worker.setDaemon(true);
+    }
+
+    public void start() {
+        worker.start();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("gymtracker:type=Sync");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.out.println("Could not publish sync metrics over JMX");
+            e.printStackTrace();
+        }
+    }
+
+    public LocalStore getStore() {
+        return store;
+    }
+
+    /** Called when a request to the central database failed for lack of a connection. */
+    public void reportOffline(SQLException cause) {
+        if (online) {
+            online = false;
+            System.out.println("Central database unreachable (" + cause.getMessage() + "), working offline");
+        }
+        wake();
+    }
+
+    /** Asks the engine to look at the outbox now, e.g. after an update was queued. */
+    public void wake() {
+        synchronized (signal) {
+            wakeRequested = true;
+            signal.notifyAll();
+        }
+    }
+
+    /** True for failures that mean the central database cannot be reached, as opposed to a bad query. */
+    public static boolean isConnectivityError(SQLException e) {
+        String state = e.getSQLState();
+        return (state != null && state.startsWith("08")) || e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException || e instanceof SQLRecoverableException;
+    }
+
+    // Worth retrying as is: no connection, or a deadlock or lock timeout that a later attempt can get past
+    private static boolean isRetryable(SQLException e) {
+        String state = e.getSQLState();
+        return isConnectivityError(e) || e instanceof SQLTransientException || (state != null && state.startsWith("40"));
+    }
+
+    @Override
+    public boolean isOnline() { return online; }
+
+    @Override
+    public long getPendingCount() { return store.getPendingCount(); }
+
+    @Override
+    public long getSyncLagMillis() {
+        try {
+            long oldest = store.getOldestPendingMillis();
+            return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public long getReplayedCount() { return replayed.sum(); }
+
+    @Override
+    public long getSupersededCount() { return superseded.sum(); }
+
+    @Override
+    public long getFailedAttempts() { return failedAttempts.sum(); }
+
+    @Override
+    public long getDeadLetterCount() {
+        try {
+            return store.getDeadLetterCount();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public long getLastSyncMillis() { return lastSyncMillis; }
+
+    /** Stops the engine. Queued updates stay in the local store for the next run. */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.close();
+    }
+
+    private void runLoop() {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                if (syncBatch()) {
+                    // More queued; keep going while the link is up
+                    continue;
+                }
+                backoff = INITIAL_BACKOFF_MILLIS;
+                waitForWork(IDLE_CHECK_MILLIS);
+            } catch (SQLException e) {
+                failedAttempts.increment();
+                if (online && isConnectivityError(e)) {
+                    online = false;
+                    System.out.println("Central database unreachable (" + e.getMessage() + "), working offline");
+                } else if (!isConnectivityError(e)) {
+                    System.out.println("Sync failed, will retry");
+                    e.printStackTrace();
+                }
+                // Jitter keeps kiosks that lost the link together from reconnecting in lockstep
+                long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                sleep(delay);
+            }
+        }
+    }
+
+    // Replays one batch; returns true if more entries are waiting
+    private boolean syncBatch() throws SQLException {
+        List<LocalStore.OutboxEntry> batch = store.peekOutbox(BATCH_SIZE);
+        if (batch.isEmpty()) {
+            if (!online) {
+                probe();
+            }
+            return false;
+        }
+        long start = REPLAY.begin();
+        int rejected = 0;
+        try (Connection connection = pool.getConnection()) {
+            boolean stamped = stampColumn.isPresent(connection);
+            if (!stampChecked) {
+                stampChecked = true;
+                if (!stamped) {
+                    System.out.println("The central users table has no details_updated_at column (migration_004);"
+                            + " offline updates are replayed without the last-writer-wins check");
+                }
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(stamped ? REPLAY_QUERY : UNSTAMPED_REPLAY_QUERY)) {
+                for (LocalStore.OutboxEntry entry : batch) {
+                    bind(stmt, entry, stamped);
+                    stmt.addBatch();
+                }
+                countSuperseded(stmt.executeBatch());
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                if (isRetryable(e)) {
+                    throw e;
+                }
+                System.out.println("Sync batch rejected (" + e.getMessage() + "), replaying its updates one at a time");
+                connection.setAutoCommit(true);
+                rejected = replayEach(connection, batch, stamped);
+            }
+        } catch (SQLException e) {
+            REPLAY.error(e);
+            throw e;
+        } finally {
+            REPLAY.end(start);
+        }
+        // Committed centrally; a crash before this line only replays the batch again, which is harmless
+        store.removeThrough(batch.get(batch.size() - 1).getSeq());
+        replayed.add(batch.size() - rejected);
+        markOnline();
+        if (store.getPendingCount() > 0) {
+            return true;
+        }
+        lastSyncMillis = System.currentTimeMillis();
+        return false;
+    }
+
+    // Autocommits each entry; one the database rejects is moved to the dead-letter table instead. Returns how many were
+    private int replayEach(Connection connection, List<LocalStore.OutboxEntry> batch, boolean stamped)
+            throws SQLException {
+        int rejected = 0;
+        try (PreparedStatement stmt = connection.prepareStatement(stamped ? REPLAY_QUERY : UNSTAMPED_REPLAY_QUERY)) {
+            for (int i = 0; i < batch.size(); i++) {
+                LocalStore.OutboxEntry entry = batch.get(i);
+                try {
+                    bind(stmt, entry, stamped);
+                    countSuperseded(new int[]{stmt.executeUpdate()});
+                } catch (SQLException e) {
+                    if (isRetryable(e)) {
+                        if (i > 0) {
+                            store.removeThrough(batch.get(i - 1).getSeq());
+                        }
+                        throw e;
+                    }
+                    store.deadLetter(entry, e.toString());
+                    rejected++;
+                    System.out.println("Moved the update for user " + entry.getUserId() + " made at "
+                            + entry.getUpdatedAt() + " to the dead-letter table: " + e.getMessage());
+                }
+            }
+        }
+        return rejected;
+    }
+
+    private static void bind(PreparedStatement stmt, LocalStore.OutboxEntry entry, boolean stamped) throws SQLException {
+        stmt.setDouble(1, entry.getHeight());
+        stmt.setDouble(2, entry.getWeight());
+        stmt.setDouble(3, entry.getBmi());
+        if (stamped) {
+            stmt.setLong(4, entry.getUpdatedAt());
+            stmt.setInt(5, entry.getUserId());
+            stmt.setLong(6, entry.getUpdatedAt());
+        } else {
+            stmt.setInt(4, entry.getUserId());
+        }
+    }
+
+    private void countSuperseded(int[] counts) {
+        for (int count : counts) {
+            if (count == 0) {
+                superseded.increment();
+            }
+        }
+    }
+
+    private void probe() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            if (!connection.isValid(2)) {
+                throw new SQLTransientConnectionException("Central database did not answer", "08001");
+            }
+        }
+        markOnline();
+    }
+
+    private void markOnline() {
+        if (!online) {
+            online = true;
+            System.out.println("Central database reachable again");
+        }
+    }
+
+    private void waitForWork(long millis) {
+        synchronized (signal) {
+            if (!wakeRequested) {
+                try {
+                    signal.wait(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+            wakeRequested = false;
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
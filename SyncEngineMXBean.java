@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * JMX view of the {@link SyncEngine}, published as
+ * {@code gymtracker:type=Sync}.
+ */
+public interface SyncEngineMXBean {
+    boolean isOnline();
+
+    long getPendingCount();
+
+    /** Age of the oldest update not yet replayed to the central database; 0 when caught up. */
+    long getSyncLagMillis();
+
+    long getReplayedCount();
+
+    /** Replayed updates that lost to a newer write made elsewhere. */
+    long getSupersededCount();
+
+    long getFailedAttempts();
+
+    /** Updates the central database rejected, set aside in the local store's dead-letter table. */
+    long getDeadLetterCount();
+
+    /** When the outbox was last drained, or 0 if it has not been yet. */
+    long getLastSyncMillis();
+}
@@ -0,0 +1,34 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tracks the background requests a frame has started so they can be
+ * cancelled together when the frame goes away.
+ */
+public class TaskScope {
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+
+    public synchronized <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        pending.add(future);
+        future.whenComplete((result, error) -> forget(future));
+        return future;
+    }
+
+    public void cancelAll() {
+        List<CompletableFuture<?>> toCancel;
+        synchronized (this) {
+            toCancel = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (CompletableFuture<?> future : toCancel) {
+            future.cancel(true);
+        }
+    }
+
+    private synchronized void forget(CompletableFuture<?> future) {
+        pending.remove(future);
+    }
+}
@@ -0,0 +1,40 @@
+package controller;
+
+/**
+ * Point-in-time counters for a {@link LoginThrottle}.
+ */
+public class ThrottleStats {
+    private final long allowed;
+    private final long throttledPerUser;
+    private final long throttledGlobal;
+    private final long negativeCacheHits;
+    private final long unknownUsernames;
+    private final int trackedUsernames;
+    private final int cachedUnknownUsernames;
+
+    public ThrottleStats(long allowed, long throttledPerUser, long throttledGlobal, long negativeCacheHits,
+                         long unknownUsernames, int trackedUsernames, int cachedUnknownUsernames) {
+        this.allowed = allowed;
+        this.throttledPerUser = throttledPerUser;
+        this.throttledGlobal = throttledGlobal;
+        this.negativeCacheHits = negativeCacheHits;
+        this.unknownUsernames = unknownUsernames;
+        this.trackedUsernames = trackedUsernames;
+        this.cachedUnknownUsernames = cachedUnknownUsernames;
+    }
+
+    public long getAllowed() { return allowed; }
+    public long getThrottledPerUser() { return throttledPerUser; }
+    public long getThrottledGlobal() { return throttledGlobal; }
+    public long getNegativeCacheHits() { return negativeCacheHits; }
+    public long getUnknownUsernames() { return unknownUsernames; }
+    public int getTrackedUsernames() { return trackedUsernames; }
+    public int getCachedUnknownUsernames() { return cachedUnknownUsernames; }
+
+    @Override
+    public String toString() {
+        return String.format("allowed=%d throttled-user=%d throttled-global=%d negative-hits=%d unknown=%d tracked=%d negative-cached=%d",
+                allowed, throttledPerUser, throttledGlobal, negativeCacheHits, unknownUsernames,
+                trackedUsernames, cachedUnknownUsernames);
+    }
+}
@@ -27,6 +27,10 @@ public class User {
         this.bmi = bmi;
     }
 
+    public User(User other) {
+        this(other.id, other.username, other.email, other.password, other.height, other.weight, other.bmi);
+    }
+
     
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
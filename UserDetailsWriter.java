@@ -0,0 +1,209 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind queue for height/weight/BMI updates. Updates for the same
+ * user inside one flush window collapse into the latest one, and each
+ * flush writes everything queued with a single JDBC batch in one
+ * transaction. Entries stay queued until their batch commits, so
+ * {@link #overlay(User)} never loses sight of an update mid-flush.
+ * While flushes fail, retries back off exponentially up to
+ * {@link #MAX_RETRY_DELAY_MILLIS}, and the failure is logged once when
+ * it starts and once when writes go through again.
+ */
+class UserDetailsWriter {
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+    private static final String UPDATE_QUERY = "UPDATE users SET height = ?, weight = ?, bmi = ? WHERE id = ?";
+    // details_updated_at comes from migration_004; offline sync's last-writer-wins replay compares against it
+    private static final String STAMPED_UPDATE_QUERY =
+            "UPDATE users SET height = ?, weight = ?, bmi = ?, details_updated_at = ? WHERE id = ?";
+
+    private final ConnectionPool pool;
+    private final long windowMillis;
+    private final DetailsStampColumn stampColumn;
+    // The flush window while healthy; doubles after each failed flush
+    private volatile long flushDelayMillis;
+    // Guarded by flushLock
+    private int consecutiveFailures;
+    private final ConcurrentHashMap<Integer, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    UserDetailsWriter(ConnectionPool pool, long windowMillis, DetailsStampColumn stampColumn) {
+        this.pool = pool;
+        this.windowMillis = windowMillis;
+        this.stampColumn = stampColumn;
+        this.flushDelayMillis = windowMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "user-details-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void enqueue(int userId, double height, double weight, double bmi, long updatedAt) {
+        if (pending.put(userId, new PendingUpdate(userId, height, weight, bmi, updatedAt)) != null) {
+            coalesced.incrementAndGet();
+        }
+        scheduleFlush();
+    }
+
+    boolean hasPending(int userId) {
+        return pending.containsKey(userId);
+    }
+
+    /**
+     * Applies any queued update to a row just read from the database.
+     */
+    User overlay(User user) {
+        PendingUpdate update = user == null ? null : pending.get(user.getId());
+        if (update != null) {
+            user.setHeight(update.height);
+            user.setWeight(update.weight);
+            user.setBmi(update.bmi);
+        }
+        return user;
+    }
+
+    /**
+     * Writes everything queued so far. Returns false if the batch failed;
+     * the updates stay queued and are retried on the next flush.
+     */
+    boolean flush() {
+        synchronized (flushLock) {
+            List<PendingUpdate> batch = new ArrayList<>(pending.values());
+            if (batch.isEmpty()) {
+                return true;
+            }
+            long start = System.nanoTime();
+            try (Connection connection = pool.getConnection()) {
+                boolean stamped = stampColumn.isPresent(connection);
+                connection.setAutoCommit(false);
+                try (PreparedStatement stmt = connection.prepareStatement(updateQuery(stamped))) {
+                    for (PendingUpdate update : batch) {
+                        bindUpdate(stmt, stamped, update.userId, update.height, update.weight, update.bmi, update.updatedAt);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                failedFlushes.incrementAndGet();
+                flushDelayMillis = Math.min(Math.max(1, flushDelayMillis) * 2, MAX_RETRY_DELAY_MILLIS);
+                if (consecutiveFailures++ == 0) {
+                    System.out.println("Write-behind flush of " + batch.size() + " updates failed, retrying with backoff");
+                    e.printStackTrace();
+                }
+                return false;
+            } finally {
+                recordFlush(System.nanoTime() - start);
+            }
+            // Only drop entries that were not replaced by a newer update while we were writing
+            for (PendingUpdate update : batch) {
+                pending.remove(update.userId, update);
+            }
+            flushes.incrementAndGet();
+            rowsWritten.addAndGet(batch.size());
+            flushDelayMillis = windowMillis;
+            if (consecutiveFailures > 0) {
+                System.out.println("Write-behind flush succeeded after " + consecutiveFailures + " failed attempts");
+                consecutiveFailures = 0;
+            }
+            return true;
+        }
+    }
+
+    void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(windowMillis * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!flush()) {
+            System.out.println("Dropping " + pending.size() + " unsaved user detail updates on shutdown");
+        }
+    }
+
+    WriteBehindMetrics metrics() {
+        long count = flushes.get() + failedFlushes.get();
+        return new WriteBehindMetrics(pending.size(), flushes.get(), rowsWritten.get(), coalesced.get(),
+                failedFlushes.get(), count == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / count,
+                maxFlushNanos.get() / 1_000_000.0);
+    }
+
+    /** The height/weight/BMI update, with the details_updated_at stamp if {@code stamped}. */
+    static String updateQuery(boolean stamped) {
+        return stamped ? STAMPED_UPDATE_QUERY : UPDATE_QUERY;
+    }
+
+    static void bindUpdate(PreparedStatement stmt, boolean stamped, int userId, double height, double weight,
+                           double bmi, long updatedAt) throws SQLException {
+        stmt.setDouble(1, height);
+        stmt.setDouble(2, weight);
+        stmt.setDouble(3, bmi);
+        if (stamped) {
+            stmt.setLong(4, updatedAt);
+            stmt.setInt(5, userId);
+        } else {
+            stmt.setInt(4, userId);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flusher.isShutdown() && flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::scheduledFlush, flushDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scheduledFlush() {
+        flushScheduled.set(false);
+        flush();
+        if (!pending.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    private void recordFlush(long nanos) {
+        totalFlushNanos.addAndGet(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static class PendingUpdate {
+        private final int userId;
+        private final double height;
+        private final double weight;
+        private final double bmi;
+        private final long updatedAt;
+
+        PendingUpdate(int userId, double height, double weight, double bmi, long updatedAt) {
+            this.userId = userId;
+            this.height = height;
+            this.weight = weight;
+            this.bmi = bmi;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
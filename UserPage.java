@@ -0,0 +1,25 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of {@link UserSummary} rows from {@link DatabaseManager#listUsers}.
+ */
+public class UserPage {
+    private final List<UserSummary> users;
+    private final boolean hasMore;
+
+    public UserPage(List<UserSummary> users, boolean hasMore) {
+        this.users = Collections.unmodifiableList(users);
+        this.hasMore = hasMore;
+    }
+
+    public List<UserSummary> getUsers() { return users; }
+    public boolean hasMore() { return hasMore; }
+
+    /** Cursor for the next page, or null if this page is empty. */
+    public UserSummary getLast() {
+        return users.isEmpty() ? null : users.get(users.size() - 1);
+    }
+}
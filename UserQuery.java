@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * Filter, sort order and position for listing users. To fetch the next
+ * page, set {@code after} to the last summary of the current one; the
+ * query then continues from that row's sort key instead of using OFFSET.
+ */
+public class UserQuery {
+    public enum Sort { ID, USERNAME, BMI }
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private Sort sort = Sort.ID;
+    private boolean descending;
+    private Double minBmi;
+    private Double maxBmi;
+    private int pageSize = 50;
+    private UserSummary after;
+
+    public Sort getSort() { return sort; }
+    public void setSort(Sort sort) { this.sort = sort; }
+
+    public boolean isDescending() { return descending; }
+    public void setDescending(boolean descending) { this.descending = descending; }
+
+    // null leaves that end of the range open
+    public Double getMinBmi() { return minBmi; }
+    public void setMinBmi(Double minBmi) { this.minBmi = minBmi; }
+
+    public Double getMaxBmi() { return maxBmi; }
+    public void setMaxBmi(Double maxBmi) { this.maxBmi = maxBmi; }
+
+    public int getPageSize() { return pageSize; }
+
+    // Below 1 a page could never make progress; above the maximum it is clamped
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1, got " + pageSize);
+        }
+        this.pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    public UserSummary getAfter() { return after; }
+    public void setAfter(UserSummary after) { this.after = after; }
+}
@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * The columns the admin user list needs, without the password or body
+ * measurements. Also serves as the keyset cursor for the next page.
+ */
+public class UserSummary {
+    private final int id;
+    private final String username;
+    private final double bmi;
+
+    public UserSummary(int id, String username, double bmi) {
+        this.id = id;
+        this.username = username;
+        this.bmi = bmi;
+    }
+
+    public int getId() { return id; }
+    public String getUsername() { return username; }
+    public double getBmi() { return bmi; }
+
+    @Override
+    public String toString() {
+        return id + " " + username + " (BMI " + String.format("%.2f", bmi) + ")";
+    }
+}
@@ -0,0 +1,195 @@
+package GymTrackerProject.src.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Crash-recovery journal for the workout being logged. The GUI submits a
+ * {@link WorkoutSnapshot} after every change; submissions within the
+ * debounce window are coalesced, and only the latest is written, on a
+ * background thread, so the event dispatch thread never waits on disk.
+ * <p>
+ * Each write goes to a temporary file that is forced to disk and then
+ * renamed over the journal atomically, so the journal always holds one
+ * complete snapshot. File layout: magic, version, CRC32 of the payload,
+ * payload length, payload.
+ * <p>
+ * Each workout is identified by a draft id chosen by the caller; once it
+ * has been saved properly, {@link #discard(long)} removes its journal
+ * without touching a newer draft's.
+ */
+public class WorkoutAutosave implements Closeable {
+    private static final int MAGIC = 0x47544153; // "GTAS"
+    private static final short VERSION = 1;
+    // Magic, version, CRC and payload length
+    private static final int HEADER_SIZE = 14;
+
+    private final Path journal;
+    private final long debounceMillis;
+    private final ScheduledExecutorService writer;
+    private final Object lock = new Object();
+    private long pendingDraftId;
+    private WorkoutSnapshot pending;
+    private boolean scheduled;
+    // Only read and written on the writer thread
+    private long writtenDraftId = -1;
+
+    public WorkoutAutosave(Path journal, long debounceMillis) {
+        this.journal = journal;
+        this.debounceMillis = debounceMillis;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "workout-autosave");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Queues the snapshot; it is written within the debounce window unless a newer one replaces it. */
+    public void submit(long draftId, WorkoutSnapshot snapshot) {
+        synchronized (lock) {
+            pendingDraftId = draftId;
+            pending = snapshot;
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        writer.schedule(this::writePending, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Drops the journal if it (or the queued snapshot) belongs to this draft. */
+    public void discard(long draftId) {
+        synchronized (lock) {
+            if (pending != null && pendingDraftId == draftId) {
+                pending = null;
+            }
+        }
+        writer.execute(() -> {
+            if (writtenDraftId == draftId) {
+                try {
+                    Files.deleteIfExists(journal);
+                    writtenDraftId = -1;
+                } catch (IOException e) {
+                    System.out.println("Could not remove autosave journal " + journal);
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /** Writes anything still queued, then stops the writer thread. */
+    @Override
+    public void close() {
+        writer.execute(this::writePending);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** The snapshot left by a previous run, or null if there is none or it is unreadable. */
+    public static WorkoutSnapshot readDraft(Path journal) {
+        if (!Files.exists(journal)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(journal))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                System.out.println("Ignoring autosave journal in an unknown format: " + journal);
+                return null;
+            }
+            int crc = in.readInt();
+            int length = in.readInt();
+            // A damaged length field must not turn into a huge allocation
+            if (length < 0 || length > Files.size(journal) - HEADER_SIZE) {
+                System.out.println("Ignoring corrupt autosave journal: " + journal);
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            if (checksum(payload) != crc) {
+                System.out.println("Ignoring corrupt autosave journal: " + journal);
+                return null;
+            }
+            return WorkoutSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException e) {
+            System.out.println("Could not read autosave journal " + journal);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static void deleteDraft(Path journal) {
+        try {
+            Files.deleteIfExists(journal);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writePending() {
+        long draftId;
+        WorkoutSnapshot snapshot;
+        synchronized (lock) {
+            draftId = pendingDraftId;
+            snapshot = pending;
+            pending = null;
+            scheduled = false;
+        }
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            write(snapshot);
+            writtenDraftId = draftId;
+        } catch (IOException e) {
+            System.out.println("Autosave failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void write(WorkoutSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.writeTo(new DataOutputStream(bytes));
+        byte[] payload = bytes.toByteArray();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(checksum(payload));
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        buffer.flip();
+
+        Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
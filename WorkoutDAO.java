@@ -0,0 +1,324 @@
+package GymTrackerProject.src.core;
+
+import GymTrackerProject.src.models.CardioExercise;
+import GymTrackerProject.src.models.Exercise;
+import GymTrackerProject.src.models.Set;
+import GymTrackerProject.src.models.WeightLiftingExercise;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stores workouts in three normalized tables: {@code workouts} (one row
+ * per workout, owned by a user), {@code workout_exercises} and
+ * {@code workout_sets}. See schema.sql for the MySQL definitions;
+ * {@link #createTablesIfMissing()} creates the same tables on H2.
+ * <p>
+ * A workout is inserted in one transaction with three statements: the
+ * workout row, then all exercises as one batch, then all sets as one
+ * batch, with the exercise keys read back from the batch's generated
+ * keys. With MySQL, add {@code rewriteBatchedStatements=true} to the URL
+ * so each batch goes out as a single multi-row INSERT.
+ * <p>
+ * Range queries read the workouts, exercises and sets in one joined query
+ * driven by the (user_id, performed_on, id) index.
+ * <p>
+ * The connection is used by one caller at a time; every method is
+ * synchronized on this DAO.
+ */
+public class WorkoutDAO {
+    private static final String KIND_LIFTING = "L";
+    private static final String KIND_CARDIO = "C";
+
+    private static final String INSERT_WORKOUT =
+            "INSERT INTO workouts (user_id, title, performed_on) VALUES (?, ?, ?)";
+    private static final String INSERT_EXERCISE =
+            "INSERT INTO workout_exercises (workout_id, position, kind, name, duration_minutes, distance, calories)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SET =
+            "INSERT INTO workout_sets (exercise_id, position, reps, weight) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_JOINED =
+            "SELECT w.id, w.title, w.performed_on, e.id AS exercise_id, e.kind, e.name, e.duration_minutes,"
+            + " e.distance, e.calories, s.reps, s.weight"
+            + " FROM workouts w"
+            + " LEFT JOIN workout_exercises e ON e.workout_id = w.id"
+            + " LEFT JOIN workout_sets s ON s.exercise_id = e.id";
+    private static final String ORDER_JOINED = " ORDER BY w.performed_on, w.id, e.position, s.position";
+
+    private static final String[] CREATE_TABLES = {
+        "CREATE TABLE IF NOT EXISTS workouts ("
+            + " id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+            + " user_id INT NOT NULL,"
+            + " title VARCHAR(200) NOT NULL,"
+            + " performed_on DATE NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS workout_exercises ("
+            + " id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+            + " workout_id BIGINT NOT NULL,"
+            + " position INT NOT NULL,"
+            + " kind CHAR(1) NOT NULL,"
+            + " name VARCHAR(100) NOT NULL,"
+            + " duration_minutes INT NOT NULL,"
+            + " distance DOUBLE,"
+            + " calories INT,"
+            + " CONSTRAINT uk_workout_exercises_position UNIQUE (workout_id, position),"
+            + " CONSTRAINT fk_workout_exercises_workout FOREIGN KEY (workout_id) REFERENCES workouts (id) ON DELETE CASCADE)",
+        "CREATE TABLE IF NOT EXISTS workout_sets ("
+            + " exercise_id BIGINT NOT NULL,"
+            + " position INT NOT NULL,"
+            + " reps INT NOT NULL,"
+            + " weight DOUBLE NOT NULL,"
+            + " PRIMARY KEY (exercise_id, position),"
+            + " CONSTRAINT fk_workout_sets_exercise FOREIGN KEY (exercise_id) REFERENCES workout_exercises (id) ON DELETE CASCADE)"
+    };
+    private static final String INDEX_NAME = "idx_workouts_user_date";
+    private static final String CREATE_INDEX = "CREATE INDEX " + INDEX_NAME + " ON workouts (user_id, performed_on, id)";
+
+    private final Connection connection;
+
+    public WorkoutDAO(Connection connection) {
+        this.connection = connection;
+    }
+
+    /** Creates the workout tables and index if they are not there yet. */
+    public synchronized void createTablesIfMissing() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String ddl : CREATE_TABLES) {
+                stmt.execute(ddl);
+            }
+            if (!hasIndex("workouts", INDEX_NAME)) {
+                stmt.execute(CREATE_INDEX);
+            }
+        }
+    }
+
+    /** Inserts the workout with all its exercises and sets. Returns the new workout id. */
+    public synchronized long insert(int userId, LocalDate date, Workout workout) throws SQLException {
+        return inTransaction(() -> insertOne(userId, date, workout));
+    }
+
+    /** Inserts several workouts in one transaction, e.g. when importing the local history log. */
+    public synchronized List<Long> insertAll(int userId, List<LocalDate> dates, List<Workout> workouts) throws SQLException {
+        return inTransaction(() -> {
+            List<Long> ids = new ArrayList<>(workouts.size());
+            for (int i = 0; i < workouts.size(); i++) {
+                ids.add(insertOne(userId, dates.get(i), workouts.get(i)));
+            }
+            return ids;
+        });
+    }
+
+    /** The user's workouts from {@code from} to {@code to} inclusive, oldest first. */
+    public synchronized List<StoredWorkout> findByUserBetween(int userId, LocalDate from, LocalDate to) throws SQLException {
+        String query = SELECT_JOINED + " WHERE w.user_id = ? AND w.performed_on BETWEEN ? AND ?" + ORDER_JOINED;
+        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setInt(1, userId);
+            stmt.setDate(2, Date.valueOf(from));
+            stmt.setDate(3, Date.valueOf(to));
+            return readJoined(stmt);
+        }
+    }
+
+    /** The user's most recent workouts, oldest first. */
+    public synchronized List<StoredWorkout> findRecent(int userId, int limit) throws SQLException {
+        // The inner query walks the index backwards; only the chosen workouts are joined
+        String query = SELECT_JOINED + " WHERE w.id IN (SELECT id FROM (SELECT id FROM workouts WHERE user_id = ?"
+                + " ORDER BY performed_on DESC, id DESC LIMIT ?) recent)" + ORDER_JOINED;
+        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, limit);
+            return readJoined(stmt);
+        }
+    }
+
+    /** Deletes a workout; its exercises and sets go with it. */
+    public synchronized boolean delete(long workoutId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM workouts WHERE id = ?")) {
+            stmt.setLong(1, workoutId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private long insertOne(int userId, LocalDate date, Workout workout) throws SQLException {
+        long workoutId;
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_WORKOUT, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, workout.getTitle());
+            stmt.setDate(3, Date.valueOf(date));
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No key returned for the inserted workout");
+                }
+                workoutId = keys.getLong(1);
+            }
+        }
+
+        List<Exercise> exercises = new ArrayList<>();
+        for (Exercise exercise : workout.getExercises()) {
+            if (exercise instanceof WeightLiftingExercise || exercise instanceof CardioExercise) {
+                exercises.add(exercise);
+            } else {
+                System.out.println("Not storing exercise of unknown type " + exercise.getClass().getName());
+            }
+        }
+        if (exercises.isEmpty()) {
+            return workoutId;
+        }
+
+        long[] exerciseIds = new long[exercises.size()];
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_EXERCISE, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < exercises.size(); i++) {
+                Exercise exercise = exercises.get(i);
+                stmt.setLong(1, workoutId);
+                stmt.setInt(2, i);
+                stmt.setString(4, exercise.getName());
+                stmt.setInt(5, exercise.getDurationMinutes());
+                if (exercise instanceof CardioExercise) {
+                    CardioExercise cardio = (CardioExercise) exercise;
+                    stmt.setString(3, KIND_CARDIO);
+                    stmt.setDouble(6, cardio.getDistance());
+                    stmt.setInt(7, cardio.getCalories());
+                } else {
+                    stmt.setString(3, KIND_LIFTING);
+                    stmt.setNull(6, Types.DOUBLE);
+                    stmt.setNull(7, Types.INTEGER);
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            // Keys come back in batch order
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < exerciseIds.length; i++) {
+                    if (!keys.next()) {
+                        throw new SQLException("Driver returned " + i + " keys for " + exerciseIds.length + " exercises");
+                    }
+                    exerciseIds[i] = keys.getLong(1);
+                }
+            }
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_SET)) {
+            int batched = 0;
+            for (int i = 0; i < exercises.size(); i++) {
+                if (!(exercises.get(i) instanceof WeightLiftingExercise)) {
+                    continue;
+                }
+                List<Set> sets = ((WeightLiftingExercise) exercises.get(i)).getSets();
+                for (int position = 0; position < sets.size(); position++) {
+                    stmt.setLong(1, exerciseIds[i]);
+                    stmt.setInt(2, position);
+                    stmt.setInt(3, sets.get(position).getReps());
+                    stmt.setDouble(4, sets.get(position).getWeight());
+                    stmt.addBatch();
+                    batched++;
+                }
+            }
+            if (batched > 0) {
+                stmt.executeBatch();
+            }
+        }
+        return workoutId;
+    }
+
+    // Rows arrive ordered by workout, exercise and set, so each workout is assembled in one pass
+    private List<StoredWorkout> readJoined(PreparedStatement stmt) throws SQLException {
+        List<StoredWorkout> result = new ArrayList<>();
+        StoredWorkout current = null;
+        long currentExerciseId = -1;
+        WeightLiftingExercise lifting = null;
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                long workoutId = rs.getLong("id");
+                if (current == null || current.id != workoutId) {
+                    current = new StoredWorkout(workoutId, rs.getDate("performed_on").toLocalDate(),
+                            new Workout(rs.getString("title")));
+                    result.add(current);
+                    currentExerciseId = -1;
+                }
+                long exerciseId = rs.getLong("exercise_id");
+                if (rs.wasNull()) {
+                    continue;
+                }
+                if (exerciseId != currentExerciseId) {
+                    currentExerciseId = exerciseId;
+                    lifting = null;
+                    String name = rs.getString("name");
+                    int duration = rs.getInt("duration_minutes");
+                    if (KIND_CARDIO.equals(rs.getString("kind"))) {
+                        current.workout.addExercise(new CardioExercise(name, duration, UUID.randomUUID().toString(),
+                                rs.getDouble("distance"), rs.getInt("calories")));
+                    } else {
+                        lifting = new WeightLiftingExercise(name, duration, UUID.randomUUID().toString());
+                        current.workout.addExercise(lifting);
+                    }
+                }
+                int reps = rs.getInt("reps");
+                if (!rs.wasNull() && lifting != null) {
+                    lifting.addSet(new Set(reps, rs.getDouble("weight")));
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean hasIndex(String table, String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        // H2 reports unquoted names in upper case, MySQL as written
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, false)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private <T> T inTransaction(Work<T> work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            T result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private interface Work<T> {
+        T run() throws SQLException;
+    }
+
+    /** A workout read back from the database, with its id and date. */
+    public static class StoredWorkout {
+        private final long id;
+        private final LocalDate date;
+        private final Workout workout;
+
+        StoredWorkout(long id, LocalDate date, Workout workout) {
+            this.id = id;
+            this.date = date;
+            this.workout = workout;
+        }
+
+        public long getId() { return id; }
+        public LocalDate getDate() { return date; }
+        public Workout getWorkout() { return workout; }
+    }
+}
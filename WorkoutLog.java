@@ -0,0 +1,367 @@
+package GymTrackerProject.src.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only workout history file. Saving a workout appends one record
+ * instead of rewriting the whole history.
+ *
+ * File layout: a header (magic, version) followed by records of
+ * {@code [int length][int crc32][payload]}. A payload holds the record
+ * type, the workout's id, date, title and time of day, then its exercises
+ * and sets as explicit fields (see {@link WorkoutSnapshot#writeExercises}).
+ *
+ * Opening the log walks only the record headers (length, id, date and
+ * title) into a {@link HistoryIndex} and memory-maps the file; workouts
+ * are only decoded when {@link #read(int)} asks for one, so startup time
+ * and heap stay flat no matter how long the history is. A failed append
+ * is truncated away before the error is rethrown, so only the last record
+ * can be torn by a crash: its checksum is verified on open, and every
+ * other record's when it is read. On open, a last record that fails its
+ * checksum, or a partial record header, is truncated as a torn append. A
+ * record whose length field is impossible or runs past the end of the
+ * file may be a torn append or a damaged length with valid records after
+ * it, so the file is copied aside before it is cut back to the last good
+ * record. A record whose leading fields make no sense is skipped with a
+ * warning.
+ */
+public class WorkoutLog implements Closeable {
+    private static final int MAGIC = 0x4754574C; // "GTWL"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final int RECORD_OVERHEAD = 8;
+    private static final byte TYPE_WORKOUT = 1;
+    // Record type, id, epoch day and the title's UTF length
+    private static final int FIXED_FIELDS_SIZE = 19;
+    private static final int SCAN_READ_SIZE = 128;
+
+    private final Path path;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long nextId = 1;
+    private final HistoryIndex index = new HistoryIndex();
+
+    private WorkoutLog(Path path) {
+        this.path = path;
+    }
+
+    /** Opens (creating if needed) and recovers the log. */
+    public static WorkoutLog open(Path path) throws IOException {
+        WorkoutLog log = new WorkoutLog(path);
+        log.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        log.recover();
+        log.remap();
+        return log;
+    }
+
+    /**
+     * Reads a history written by the old {@code ObjectOutputStream} format
+     * into a new log, then renames the old file to {@code .bak}.
+     * Returns the number of workouts converted.
+     */
+    @SuppressWarnings("unchecked")
+    public static int convertLegacy(Path serFile, Path logFile) throws IOException, ClassNotFoundException {
+        List<Workout> workouts;
+        try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(serFile))) {
+            workouts = (List<Workout>) ois.readObject();
+        }
+        List<byte[]> payloads = new ArrayList<>(workouts.size());
+        long id = 1;
+        for (Workout workout : workouts) {
+            payloads.add(encodeWorkout(id++, workout));
+        }
+        writeAndSwap(payloads, logFile, ".converting");
+        Files.move(serFile, serFile.resolveSibling(serFile.getFileName() + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+        return workouts.size();
+    }
+
+    /**
+     * Appends the workout and returns its id in this log. If the write
+     * fails, the file is cut back to where it was before rethrowing.
+     */
+    public synchronized long append(Workout workout) throws IOException {
+        long offset = channel.size();
+        long id = nextId;
+        byte[] payload = encodeWorkout(id, workout);
+        try {
+            write(payload, offset);
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            try {
+                channel.truncate(offset);
+            } catch (IOException truncateError) {
+                e.addSuppressed(truncateError);
+            }
+            throw e;
+        }
+        nextId++;
+        index.add(id, offset, RECORD_OVERHEAD + payload.length,
+                LocalDate.from(workout.getDate()).toEpochDay(), workout.getTitle());
+        return id;
+    }
+
+    /** Number of workouts in the log. */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long getId(int position) {
+        return index.id(position);
+    }
+
+    public synchronized LocalDate getDate(int position) {
+        return index.date(position);
+    }
+
+    public synchronized String getTitle(int position) {
+        return index.title(position);
+    }
+
+    /**
+     * Decodes the workout at the given position (0 = oldest) from the mapped file.
+     * Only copying the record out is serialized, so several threads can
+     * decode workouts at once.
+     */
+    public Workout read(int position) throws IOException {
+        byte[] payload;
+        synchronized (this) {
+            payload = payload(position);
+        }
+        return decodeWorkout(payload);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapped = null;
+        channel.close();
+    }
+
+    // Walks the record headers with positional reads; the file is not mapped yet, so a bad tail can be truncated
+    private void recover() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            channel.truncate(0);
+            channel.write(header(), 0);
+            channel.force(true);
+            return;
+        }
+        ByteBuffer header = readAt(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException(path + " is not a workout history log");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported workout history log version " + version);
+        }
+
+        long offset = HEADER_SIZE;
+        long validEnd = offset;
+        int damaged = 0;
+        // Set when the scan stops at a record that may not be the last one written
+        boolean uncertain = false;
+        while (offset + RECORD_OVERHEAD <= size) {
+            // Usually the frame, the fixed fields and the whole title in one read
+            ByteBuffer frame = readAt(offset, (int) Math.min(SCAN_READ_SIZE, size - offset));
+            int length = frame.getInt();
+            int crc = frame.getInt();
+            if (length <= 0 || offset + RECORD_OVERHEAD + length > size) {
+                // A torn final append, or a damaged length field with records after it
+                uncertain = true;
+                break;
+            }
+            long end = offset + RECORD_OVERHEAD + length;
+            // Only the last record can be torn by a crash, so it is the only one checked in full here
+            if (end == size && checksum(readAt(offset + RECORD_OVERHEAD, length).array()) != crc) {
+                break;
+            }
+            if (!indexRecord(offset, length, frame)) {
+                damaged++;
+            }
+            offset = end;
+            validEnd = offset;
+        }
+
+        if (damaged > 0) {
+            System.err.println("Workout history: skipped " + damaged + " damaged records in " + path);
+        }
+        if (validEnd < size) {
+            // After a skipped record the frame boundaries themselves may be off
+            if (uncertain || damaged > 0) {
+                Path copy = copyAside();
+                System.err.println("Workout history: the record at byte " + validEnd + " of " + path
+                        + " is incomplete or damaged; dropping the " + (size - validEnd)
+                        + " bytes from there on. The file as found was copied to " + copy);
+            } else {
+                System.err.println("Workout history: discarding " + (size - validEnd) + " bytes of incomplete data at the end of " + path);
+            }
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+    }
+
+    // Adds the record to the index from its leading fields; false if they make no sense
+    private boolean indexRecord(long offset, int length, ByteBuffer frame) throws IOException {
+        if (length < FIXED_FIELDS_SIZE || frame.remaining() < FIXED_FIELDS_SIZE || frame.get() != TYPE_WORKOUT) {
+            return false;
+        }
+        long id = frame.getLong();
+        long epochDay = frame.getLong();
+        int titleLength = frame.getShort() & 0xFFFF;
+        if (FIXED_FIELDS_SIZE + titleLength > length) {
+            return false;
+        }
+        byte[] utf = new byte[2 + titleLength];
+        if (frame.remaining() >= titleLength) {
+            frame.position(frame.position() - 2);
+            frame.get(utf);
+        } else {
+            readAt(offset + RECORD_OVERHEAD + FIXED_FIELDS_SIZE - 2, utf.length).get(utf);
+        }
+        String title;
+        try {
+            title = new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
+        } catch (UTFDataFormatException e) {
+            return false;
+        }
+        index.add(id, offset, RECORD_OVERHEAD + length, epochDay, title);
+        nextId = Math.max(nextId, id + 1);
+        return true;
+    }
+
+    // Keeps the file as found before recovery cuts it short, so nothing past the damage is lost for good
+    private Path copyAside() throws IOException {
+        Path copy = path.resolveSibling(path.getFileName() + ".damaged-" + System.currentTimeMillis());
+        Files.copy(path, copy);
+        return copy;
+    }
+
+    private ByteBuffer readAt(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + path);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void remap() throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    private byte[] payload(int position) throws IOException {
+        long offset = index.offset(position);
+        int length = index.length(position);
+        if (offset + length > mapped.capacity()) {
+            // Appended since the last mapping
+            remap();
+        }
+        int payloadLength = mapped.getInt((int) offset);
+        int crc = mapped.getInt((int) offset + 4);
+        byte[] payload = new byte[payloadLength];
+        ByteBuffer view = mapped.duplicate();
+        view.position((int) offset + RECORD_OVERHEAD);
+        view.get(payload);
+        if (checksum(payload) != crc) {
+            throw new IOException("Workout record " + index.id(position) + " failed its checksum");
+        }
+        return payload;
+    }
+
+    private void write(byte[] payload, long position) throws IOException {
+        ByteBuffer buffer = frame(payload);
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(payload));
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] encodeWorkout(long id, Workout workout) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_WORKOUT);
+        out.writeLong(id);
+        out.writeLong(LocalDate.from(workout.getDate()).toEpochDay());
+        out.writeUTF(workout.getTitle());
+        out.writeLong(LocalDateTime.from(workout.getDate()).toLocalTime().toNanoOfDay());
+        WorkoutSnapshot.of(workout).writeExercises(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Workout decodeWorkout(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        in.readByte();
+        in.readLong();
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        String title = in.readUTF();
+        LocalTime time = LocalTime.ofNanoOfDay(in.readLong());
+        Workout workout = WorkoutSnapshot.readExercises(in, title, 0).toWorkout();
+        workout.setDate(LocalDateTime.of(date, time));
+        return workout;
+    }
+
+    // Writes a complete log to a temp file and moves it over the target in one step
+    private static void writeAndSwap(List<byte[]> payloads, Path target, String tempSuffix) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + tempSuffix);
+        Files.deleteIfExists(temp);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = header();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            for (byte[] payload : payloads) {
+                ByteBuffer record = frame(payload);
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.flip();
+        return header;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,90 @@
+import GymTrackerProject.src.core.WorkoutLog;
+
+import javax.swing.JTextArea;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * View model for the "Current Workout Log" text area. The area shows the
+ * current workout's report followed by the history summary; instead of
+ * replacing the whole text on every change, only the part of the document
+ * that actually changed is edited.
+ */
+class WorkoutLogView {
+    private static final String HISTORY_HEADER = "\n\n--- Workout History ---\n";
+    private static final DateTimeFormatter HISTORY_DATE = DateTimeFormatter.ofPattern("MMM dd");
+
+    private final JTextArea area;
+    private String currentReport = "";
+    private int historyEntries;
+
+    WorkoutLogView(JTextArea area) {
+        this.area = area;
+        area.setText(HISTORY_HEADER);
+    }
+
+    /**
+     * Replaces the current workout's report, editing only the lines between
+     * the unchanged prefix and suffix (typically the set just logged or removed).
+     */
+    void showCurrentWorkout(String report) {
+        String previous = currentReport;
+        int prefix = 0;
+        int maxPrefix = Math.min(previous.length(), report.length());
+        while (prefix < maxPrefix && previous.charAt(prefix) == report.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix
+                && previous.charAt(previous.length() - 1 - suffix) == report.charAt(report.length() - 1 - suffix)) {
+            suffix++;
+        }
+        Document document = area.getDocument();
+        try {
+            document.remove(prefix, previous.length() - prefix - suffix);
+            document.insertString(prefix, report.substring(prefix, report.length() - suffix), null);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException("Workout log document is out of sync", e);
+        }
+        currentReport = report;
+    }
+
+    void addHistoryEntry(LocalDate date, String title) {
+        Document document = area.getDocument();
+        try {
+            document.insertString(document.getLength(), (historyEntries == 0 ? "" : "\n") + formatEntry(date, title), null);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException("Workout log document is out of sync", e);
+        }
+        historyEntries++;
+    }
+
+    /**
+     * Rebuilds the history section from the log's index, e.g. after loading.
+     */
+    void showHistory(WorkoutLog log) {
+        StringBuilder summary = new StringBuilder();
+        for (int i = 0; i < log.size(); i++) {
+            if (i > 0) {
+                summary.append('\n');
+            }
+            summary.append(formatEntry(log.getDate(i), log.getTitle(i)));
+        }
+        Document document = area.getDocument();
+        int historyStart = currentReport.length() + HISTORY_HEADER.length();
+        try {
+            document.remove(historyStart, document.getLength() - historyStart);
+            document.insertString(historyStart, summary.toString(), null);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException("Workout log document is out of sync", e);
+        }
+        historyEntries = log.size();
+    }
+
+    private static String formatEntry(LocalDate date, String title) {
+        return date.format(HISTORY_DATE) + " - " + title;
+    }
+}
@@ -0,0 +1,185 @@
+package GymTrackerProject.src.core;
+
+import GymTrackerProject.src.models.CardioExercise;
+import GymTrackerProject.src.models.Exercise;
+import GymTrackerProject.src.models.Set;
+import GymTrackerProject.src.models.WeightLiftingExercise;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The workout being logged, plus the indexes needed to log into it
+ * quickly: weight-lifting exercises by case-folded name, and exercises by
+ * type. All changes to the workout's exercise list go through this class
+ * so the indexes and the running set count stay consistent.
+ * <p>
+ * Each weight-lifting exercise also gets a {@link LiftStats} with running
+ * totals, so volume, top set and estimated 1RM are read without walking
+ * the exercise's {@link Set} list. The sets themselves are only stored in
+ * the exercise.
+ */
+public class WorkoutSession {
+    private final Workout workout;
+    private final Map<String, WeightLiftingExercise> liftingByName = new HashMap<>();
+    private final Map<Class<? extends Exercise>, List<Exercise>> byType = new HashMap<>();
+    private final Map<WeightLiftingExercise, LiftStats> stats = new IdentityHashMap<>();
+    private int setCount;
+    private double totalVolume;
+
+    public WorkoutSession(Workout workout) {
+        this.workout = workout;
+        for (Exercise exercise : workout.getExercises()) {
+            index(exercise);
+        }
+    }
+
+    public Workout getWorkout() {
+        return workout;
+    }
+
+    public boolean isEmpty() {
+        return workout.getExercises().isEmpty();
+    }
+
+    public int getSetCount() {
+        return setCount;
+    }
+
+    public double getTotalVolume() {
+        return totalVolume;
+    }
+
+    /** Running totals for a weight-lifting exercise in this session, or null. */
+    public LiftStats getLiftStats(WeightLiftingExercise exercise) {
+        return stats.get(exercise);
+    }
+
+    /**
+     * One line per weight-lifting exercise with its volume, top set and
+     * estimated 1RM, built from the running aggregates.
+     */
+    public String getLiftStatsReport() {
+        StringBuilder report = new StringBuilder();
+        for (WeightLiftingExercise exercise : getExercises(WeightLiftingExercise.class)) {
+            LiftStats lift = stats.get(exercise);
+            report.append(String.format(Locale.ROOT, "%s: volume %.1f, top set %.1f x %d, est. 1RM %.1f%n",
+                    exercise.getName(), lift.getTotalVolume(), lift.getTopWeight(), lift.getTopSetReps(),
+                    lift.getEstimatedOneRepMax()));
+        }
+        return report.toString();
+    }
+
+    public WeightLiftingExercise findWeightLifting(String name) {
+        return liftingByName.get(key(name));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Exercise> List<T> getExercises(Class<T> type) {
+        List<Exercise> exercises = byType.get(type);
+        return exercises == null ? Collections.<T>emptyList() : Collections.unmodifiableList((List<T>) exercises);
+    }
+
+    /**
+     * Logs a set, adding it to the existing exercise with that name
+     * (ignoring case) or starting a new one.
+     */
+    public WeightLiftingExercise addSet(String name, int durationMinutes, int reps, double weight) {
+        WeightLiftingExercise exercise = findWeightLifting(name);
+        if (exercise == null) {
+            exercise = new WeightLiftingExercise(name, durationMinutes, UUID.randomUUID().toString());
+            workout.addExercise(exercise);
+            index(exercise);
+        } else {
+            exercise.setDurationMinutes(durationMinutes);
+        }
+        exercise.addSet(new Set(reps, weight));
+        stats.get(exercise).add(reps, weight);
+        setCount++;
+        totalVolume += reps * weight;
+        return exercise;
+    }
+
+    public CardioExercise addCardio(String name, int durationMinutes, double distance, int calories) {
+        CardioExercise exercise = new CardioExercise(name, durationMinutes, UUID.randomUUID().toString(), distance, calories);
+        workout.addExercise(exercise);
+        index(exercise);
+        return exercise;
+    }
+
+    /**
+     * Removes the last set of the most recently logged exercise, and the
+     * exercise itself once it has no sets left. Returns the exercise that
+     * lost a set, or null if the last exercise is not weight lifting.
+     */
+    public WeightLiftingExercise removeLastSet() {
+        List<Exercise> exercises = workout.getExercises();
+        if (exercises.isEmpty() || !(exercises.get(exercises.size() - 1) instanceof WeightLiftingExercise)) {
+            return null;
+        }
+        WeightLiftingExercise exercise = (WeightLiftingExercise) exercises.get(exercises.size() - 1);
+        List<Set> sets = exercise.getSets();
+        if (!sets.isEmpty()) {
+            Set last = sets.get(sets.size() - 1);
+            exercise.removeLastSet();
+            stats.get(exercise).remove(last.getReps(), last.getWeight(), exercise.getSets());
+            totalVolume -= last.getReps() * last.getWeight();
+            setCount--;
+        }
+        if (exercise.getSets().isEmpty()) {
+            removeExercise(exercise);
+        }
+        return exercise;
+    }
+
+    public boolean removeExercise(Exercise exercise) {
+        if (!workout.getExercises().remove(exercise)) {
+            return false;
+        }
+        List<Exercise> sameType = byType.get(exercise.getClass());
+        if (sameType != null) {
+            sameType.remove(exercise);
+        }
+        if (exercise instanceof WeightLiftingExercise) {
+            WeightLiftingExercise lifting = (WeightLiftingExercise) exercise;
+            LiftStats lift = stats.remove(lifting);
+            setCount -= lift.getSetCount();
+            totalVolume -= lift.getTotalVolume();
+            liftingByName.remove(key(exercise.getName()), exercise);
+            // Another exercise with the same name may have been shadowed by this one
+            for (Exercise other : workout.getExercises()) {
+                if (other instanceof WeightLiftingExercise && key(other.getName()).equals(key(exercise.getName()))) {
+                    liftingByName.putIfAbsent(key(other.getName()), (WeightLiftingExercise) other);
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void index(Exercise exercise) {
+        byType.computeIfAbsent(exercise.getClass(), type -> new ArrayList<>()).add(exercise);
+        if (exercise instanceof WeightLiftingExercise) {
+            WeightLiftingExercise lifting = (WeightLiftingExercise) exercise;
+            // Matches the old linear search, which found the first exercise with the name
+            liftingByName.putIfAbsent(key(exercise.getName()), lifting);
+            LiftStats lift = new LiftStats();
+            for (Set set : lifting.getSets()) {
+                lift.add(set.getReps(), set.getWeight());
+            }
+            stats.put(lifting, lift);
+            setCount += lift.getSetCount();
+            totalVolume += lift.getTotalVolume();
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,174 @@
+package GymTrackerProject.src.core;
+
+import GymTrackerProject.src.models.CardioExercise;
+import GymTrackerProject.src.models.Exercise;
+import GymTrackerProject.src.models.Set;
+import GymTrackerProject.src.models.WeightLiftingExercise;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of a workout in progress, taken on the event dispatch
+ * thread and safe to hand to a background writer. Sets are copied into
+ * primitive arrays, so a snapshot costs a few small allocations.
+ */
+public final class WorkoutSnapshot {
+    private static final byte KIND_LIFTING = 1;
+    private static final byte KIND_CARDIO = 2;
+
+    private final String title;
+    private final long takenAtMillis;
+    private final List<ExerciseSnapshot> exercises;
+
+    private WorkoutSnapshot(String title, long takenAtMillis, List<ExerciseSnapshot> exercises) {
+        this.title = title;
+        this.takenAtMillis = takenAtMillis;
+        this.exercises = Collections.unmodifiableList(exercises);
+    }
+
+    public static WorkoutSnapshot of(Workout workout) {
+        List<ExerciseSnapshot> exercises = new ArrayList<>(workout.getExercises().size());
+        for (Exercise exercise : workout.getExercises()) {
+            if (exercise instanceof WeightLiftingExercise) {
+                List<Set> sets = ((WeightLiftingExercise) exercise).getSets();
+                int[] reps = new int[sets.size()];
+                double[] weights = new double[sets.size()];
+                for (int i = 0; i < reps.length; i++) {
+                    reps[i] = sets.get(i).getReps();
+                    weights[i] = sets.get(i).getWeight();
+                }
+                exercises.add(new ExerciseSnapshot(KIND_LIFTING, exercise.getName(), exercise.getId(),
+                        exercise.getDurationMinutes(), reps, weights, 0, 0));
+            } else if (exercise instanceof CardioExercise) {
+                CardioExercise cardio = (CardioExercise) exercise;
+                exercises.add(new ExerciseSnapshot(KIND_CARDIO, cardio.getName(), cardio.getId(),
+                        cardio.getDurationMinutes(), null, null, cardio.getDistance(), cardio.getCalories()));
+            }
+        }
+        return new WorkoutSnapshot(workout.getTitle(), System.currentTimeMillis(), exercises);
+    }
+
+    public String getTitle() { return title; }
+    public long getTakenAtMillis() { return takenAtMillis; }
+    public int getExerciseCount() { return exercises.size(); }
+
+    public int getSetCount() {
+        int sets = 0;
+        for (ExerciseSnapshot exercise : exercises) {
+            sets += exercise.reps == null ? 0 : exercise.reps.length;
+        }
+        return sets;
+    }
+
+    public boolean isEmpty() {
+        return exercises.isEmpty();
+    }
+
+    /** A new, mutable workout with the snapshot's exercises (keeping their ids) and sets. */
+    public Workout toWorkout() {
+        Workout workout = new Workout(title);
+        for (ExerciseSnapshot snapshot : exercises) {
+            if (snapshot.kind == KIND_CARDIO) {
+                workout.addExercise(new CardioExercise(snapshot.name, snapshot.durationMinutes, snapshot.id,
+                        snapshot.distance, snapshot.calories));
+            } else {
+                WeightLiftingExercise lifting = new WeightLiftingExercise(snapshot.name, snapshot.durationMinutes,
+                        snapshot.id);
+                for (int i = 0; i < snapshot.reps.length; i++) {
+                    lifting.addSet(new Set(snapshot.reps[i], snapshot.weights[i]));
+                }
+                workout.addExercise(lifting);
+            }
+        }
+        return workout;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(title);
+        out.writeLong(takenAtMillis);
+        writeExercises(out);
+    }
+
+    static WorkoutSnapshot readFrom(DataInputStream in) throws IOException {
+        String title = in.readUTF();
+        long takenAtMillis = in.readLong();
+        return readExercises(in, title, takenAtMillis);
+    }
+
+    // The exercises and sets alone, for formats that keep the title elsewhere
+    void writeExercises(DataOutputStream out) throws IOException {
+        out.writeInt(exercises.size());
+        for (ExerciseSnapshot exercise : exercises) {
+            out.writeByte(exercise.kind);
+            out.writeUTF(exercise.name);
+            out.writeUTF(exercise.id);
+            out.writeInt(exercise.durationMinutes);
+            if (exercise.kind == KIND_CARDIO) {
+                out.writeDouble(exercise.distance);
+                out.writeInt(exercise.calories);
+            } else {
+                out.writeInt(exercise.reps.length);
+                for (int i = 0; i < exercise.reps.length; i++) {
+                    out.writeInt(exercise.reps[i]);
+                    out.writeDouble(exercise.weights[i]);
+                }
+            }
+        }
+    }
+
+    static WorkoutSnapshot readExercises(DataInputStream in, String title, long takenAtMillis) throws IOException {
+        int count = in.readInt();
+        List<ExerciseSnapshot> exercises = new ArrayList<>(count);
+        for (int e = 0; e < count; e++) {
+            byte kind = in.readByte();
+            String name = in.readUTF();
+            String id = in.readUTF();
+            int duration = in.readInt();
+            if (kind == KIND_CARDIO) {
+                exercises.add(new ExerciseSnapshot(kind, name, id, duration, null, null, in.readDouble(), in.readInt()));
+            } else if (kind == KIND_LIFTING) {
+                int sets = in.readInt();
+                int[] reps = new int[sets];
+                double[] weights = new double[sets];
+                for (int i = 0; i < sets; i++) {
+                    reps[i] = in.readInt();
+                    weights[i] = in.readDouble();
+                }
+                exercises.add(new ExerciseSnapshot(kind, name, id, duration, reps, weights, 0, 0));
+            } else {
+                throw new IOException("Unknown exercise kind " + kind);
+            }
+        }
+        return new WorkoutSnapshot(title, takenAtMillis, exercises);
+    }
+
+    private static final class ExerciseSnapshot {
+        final byte kind;
+        final String name;
+        final String id;
+        final int durationMinutes;
+        // Weight lifting only
+        final int[] reps;
+        final double[] weights;
+        // Cardio only
+        final double distance;
+        final int calories;
+
+        ExerciseSnapshot(byte kind, String name, String id, int durationMinutes, int[] reps, double[] weights,
+                         double distance, int calories) {
+            this.kind = kind;
+            this.name = name;
+            this.id = id;
+            this.durationMinutes = durationMinutes;
+            this.reps = reps;
+            this.weights = weights;
+            this.distance = distance;
+            this.calories = calories;
+        }
+    }
+}
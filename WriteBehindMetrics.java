@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * Point-in-time counters for the write-behind queue in {@link UserDetailsWriter}.
+ */
+public class WriteBehindMetrics {
+    private final int queueDepth;
+    private final long flushes;
+    private final long rowsWritten;
+    private final long coalesced;
+    private final long failedFlushes;
+    private final double averageFlushMillis;
+    private final double maxFlushMillis;
+
+    public WriteBehindMetrics(int queueDepth, long flushes, long rowsWritten, long coalesced, long failedFlushes,
+                              double averageFlushMillis, double maxFlushMillis) {
+        this.queueDepth = queueDepth;
+        this.flushes = flushes;
+        this.rowsWritten = rowsWritten;
+        this.coalesced = coalesced;
+        this.failedFlushes = failedFlushes;
+        this.averageFlushMillis = averageFlushMillis;
+        this.maxFlushMillis = maxFlushMillis;
+    }
+
+    public int getQueueDepth() { return queueDepth; }
+    public long getFlushes() { return flushes; }
+    public long getRowsWritten() { return rowsWritten; }
+    public long getCoalesced() { return coalesced; }
+    public long getFailedFlushes() { return failedFlushes; }
+    public double getAverageFlushMillis() { return averageFlushMillis; }
+    public double getMaxFlushMillis() { return maxFlushMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("queue=%d flushes=%d rows=%d coalesced=%d failed=%d flush avg=%.2fms max=%.2fms",
+                queueDepth, flushes, rowsWritten, coalesced, failedFlushes, averageFlushMillis, maxFlushMillis);
+    }
+}
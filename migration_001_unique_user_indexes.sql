@@ -0,0 +1,13 @@
+-- Adds the unique indexes registration relies on. Besides making sign-up a
+-- single atomic INSERT, they turn the "username = ? OR email = ?" lookup in
+-- DatabaseManager.userExists into two index probes instead of a table scan.
+--
+-- The ALTER fails if duplicates already exist; find them first with:
+--   SELECT username, COUNT(*) FROM users GROUP BY username HAVING COUNT(*) > 1;
+--   SELECT email, COUNT(*) FROM users GROUP BY email HAVING COUNT(*) > 1;
+
+USE gymtracker;
+
+ALTER TABLE users
+    ADD CONSTRAINT uk_users_username UNIQUE (username),
+    ADD CONSTRAINT uk_users_email UNIQUE (email);
@@ -0,0 +1,8 @@
+-- Index for the admin user list (DatabaseManager.listUsers/streamUsers).
+-- Filtering by BMI range and sorting by BMI walk this index, with id as
+-- the tie-breaker for keyset paging. Sorting by username uses the
+-- existing uk_users_username index, and sorting by id uses the primary key.
+
+USE gymtracker;
+
+CREATE INDEX idx_users_bmi_id ON users (bmi, id);
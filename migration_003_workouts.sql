@@ -0,0 +1,40 @@
+-- Workout history tables for WorkoutDAO. Workouts were previously kept
+-- only in each machine's local workout_history.log; these tables hold them
+-- per user. The composite index serves per-user date range queries, and
+-- the unique (workout_id, position) constraint and the sets primary key
+-- serve the joins from a workout to its exercises and sets.
+
+USE gymtracker;
+
+CREATE TABLE IF NOT EXISTS workouts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    performed_on DATE NOT NULL,
+    -- Per-user date range queries and most-recent-first listing
+    INDEX idx_workouts_user_date (user_id, performed_on, id),
+    CONSTRAINT fk_workouts_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS workout_exercises (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    workout_id BIGINT NOT NULL,
+    position INT NOT NULL,
+    -- L = weight lifting, C = cardio; distance and calories are cardio only
+    kind CHAR(1) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    duration_minutes INT NOT NULL,
+    distance DOUBLE,
+    calories INT,
+    CONSTRAINT uk_workout_exercises_position UNIQUE (workout_id, position),
+    CONSTRAINT fk_workout_exercises_workout FOREIGN KEY (workout_id) REFERENCES workouts (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS workout_sets (
+    exercise_id BIGINT NOT NULL,
+    position INT NOT NULL,
+    reps INT NOT NULL,
+    weight DOUBLE NOT NULL,
+    PRIMARY KEY (exercise_id, position),
+    CONSTRAINT fk_workout_sets_exercise FOREIGN KEY (exercise_id) REFERENCES workout_exercises (id) ON DELETE CASCADE
+);
@@ -0,0 +1,12 @@
+-- Timestamp for last-writer-wins replay of offline updates (SyncEngine).
+-- Once the column exists, every client stamps the row with the time of
+-- each height/weight/BMI write, whether or not offline mode
+-- (-Dgymtracker.offline=true) is on; an update queued on a kiosk while
+-- offline only overwrites the row if nothing newer has been written since.
+-- BmiBackfillJob recomputes bmi from the row's own height and weight and
+-- leaves the stamp alone. Without the column, offline updates are
+-- replayed unconditionally.
+
+USE gymtracker;
+
+ALTER TABLE users ADD COLUMN details_updated_at BIGINT NULL;
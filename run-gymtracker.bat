@@ -0,0 +1,23 @@
+@echo off
+rem Windows version of run-gymtracker.sh: starts the member app with an
+rem application class-data sharing archive, training it first if missing.
+rem   run-gymtracker.bat           run
+rem   run-gymtracker.bat --train   (re)build the archive only
+
+setlocal
+if "%GYMTRACKER_CP%"=="" (set "CP=gymtracker.jar;lib\*") else (set "CP=%GYMTRACKER_CP%")
+if "%GYMTRACKER_CDS%"=="" (set "ARCHIVE=gymtracker.jsa") else (set "ARCHIVE=%GYMTRACKER_CDS%")
+
+if "%~1"=="--train" goto train
+if not exist "%ARCHIVE%" goto train
+goto run
+
+:train
+rem Class-data sharing only archives classes loaded from jars
+if "%GYMTRACKER_CP%"=="" if exist out jar --create --file gymtracker.jar -C out .
+java -XX:ArchiveClassesAtExit="%ARCHIVE%" -Dgymtracker.startup.exitAfterPaint=true -cp "%CP%" GymTrackerLauncher
+if errorlevel 1 exit /b 1
+if "%~1"=="--train" exit /b 0
+
+:run
+java -XX:SharedArchiveFile="%ARCHIVE%" -Xshare:auto -cp "%CP%" GymTrackerLauncher %*
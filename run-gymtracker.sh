@@ -0,0 +1,33 @@
+#!/bin/sh
+# Starts the member app with an application class-data sharing (AppCDS)
+# archive, so the JDK and app classes needed up to the login window are
+# mapped in ready-parsed instead of loaded and verified on every launch.
+#
+#   ./run-gymtracker.sh           run; trains the archive first if it is missing
+#   ./run-gymtracker.sh --train   (re)build the archive only, e.g. after an upgrade
+#
+# Class-data sharing only archives classes loaded from jars, so training
+# packages the compiled classes in out/ into gymtracker.jar first.
+# GYMTRACKER_CP overrides the classpath (app jar plus the JDBC driver
+# jars), GYMTRACKER_CDS the archive path. Needs JDK 13 or later. The
+# archive is tied to the JDK build and classpath it was made with; the JVM
+# ignores a stale one and starts without it.
+
+CP="${GYMTRACKER_CP:-gymtracker.jar:lib/*}"
+ARCHIVE="${GYMTRACKER_CDS:-gymtracker.jsa}"
+
+if [ "$1" = "--train" ] || [ ! -f "$ARCHIVE" ]; then
+    if [ -z "$GYMTRACKER_CP" ] && [ -d out ]; then
+        jar --create --file gymtracker.jar -C out . || exit 1
+    fi
+    # Training run: opens the login window, exits once it has painted and
+    # dumps every class loaded up to then into the archive
+    java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dgymtracker.startup.exitAfterPaint=true \
+        -cp "$CP" GymTrackerLauncher || exit 1
+    if [ "$1" = "--train" ]; then
+        exit 0
+    fi
+fi
+
+exec java -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto \
+    -cp "$CP" GymTrackerLauncher "$@"
@@ -0,0 +1,56 @@
+-- Gym Tracker schema (MySQL 8). Fresh installs run this file as is;
+-- existing databases apply the numbered migration_*.sql files in order.
+
+CREATE DATABASE IF NOT EXISTS gymtracker;
+USE gymtracker;
+
+CREATE TABLE IF NOT EXISTS users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    height DOUBLE DEFAULT 0,
+    weight DOUBLE DEFAULT 0,
+    bmi DOUBLE DEFAULT 0,
+    -- Epoch millis of the last height/weight/BMI change; offline replays older than this are dropped
+    details_updated_at BIGINT NULL,
+    -- DatabaseManager.register maps duplicate-key errors to a field by these index names
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    -- BMI range filters and BMI-ordered keyset paging in DatabaseManager.listUsers
+    INDEX idx_users_bmi_id (bmi, id)
+);
+
+-- Workout history (GymTrackerProject.src.core.WorkoutDAO)
+CREATE TABLE IF NOT EXISTS workouts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    performed_on DATE NOT NULL,
+    -- Per-user date range queries and most-recent-first listing
+    INDEX idx_workouts_user_date (user_id, performed_on, id),
+    CONSTRAINT fk_workouts_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS workout_exercises (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    workout_id BIGINT NOT NULL,
+    position INT NOT NULL,
+    -- L = weight lifting, C = cardio; distance and calories are cardio only
+    kind CHAR(1) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    duration_minutes INT NOT NULL,
+    distance DOUBLE,
+    calories INT,
+    CONSTRAINT uk_workout_exercises_position UNIQUE (workout_id, position),
+    CONSTRAINT fk_workout_exercises_workout FOREIGN KEY (workout_id) REFERENCES workouts (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS workout_sets (
+    exercise_id BIGINT NOT NULL,
+    position INT NOT NULL,
+    reps INT NOT NULL,
+    weight DOUBLE NOT NULL,
+    PRIMARY KEY (exercise_id, position),
+    CONSTRAINT fk_workout_sets_exercise FOREIGN KEY (exercise_id) REFERENCES workout_exercises (id) ON DELETE CASCADE
+);